@@ -22,12 +22,10 @@
 
 package dev.galacticraft.impl.internal.accessor;
 
+import dev.galacticraft.impl.internal.oxygen.SectionOxygen;
 import net.minecraft.network.FriendlyByteBuf;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-
-import java.util.BitSet;
 
 @ApiStatus.Internal
 public interface ChunkSectionOxygenAccessor {
@@ -45,9 +43,7 @@ public interface ChunkSectionOxygenAccessor {
 
     boolean galacticraft$isEmpty();
 
-    @Nullable BitSet galacticraft$getBits();
-
-    void galacticraft$setBits(@Nullable BitSet set);
+    @NotNull SectionOxygen galacticraft$getOxygen();
 
     void galacticraft$writeOxygenPacket(@NotNull FriendlyByteBuf buf);
 
@@ -30,7 +30,9 @@
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import dev.galacticraft.api.accessor.LevelOxygenAccessor;
 import dev.galacticraft.impl.command.argument.RegistryArgumentType;
+import dev.galacticraft.impl.network.s2c.OxygenUpdatePayload;
 import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.machine.SealerManager;
 import dev.galacticraft.mod.util.Translations;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.mixin.command.ArgumentTypesAccessor;
@@ -44,9 +46,12 @@
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import org.jetbrains.annotations.ApiStatus;
 
+import java.util.List;
+
 @ApiStatus.Internal
 public class GCApiCommands {
     public static void register() {
@@ -87,6 +92,8 @@ public static void register() {
                         }
                         return 1;
                     })))));
+            builder.then(Commands.literal("sealing").executes(GCApiCommands::dumpSealing));
+            builder.then(Commands.literal("oxygen_sync").executes(GCApiCommands::dumpOxygenSync));
             commandDispatcher.register(builder);
             builder = Commands.literal(Constant.MOD_ID + ":oxygen").requires(source -> source.hasPermission(3));
             builder.then(Commands.literal("get").then(Commands.argument("start_pos", BlockPosArgument.blockPos()).executes(GCApiCommands::getOxygen).then(Commands.argument("end_pos", BlockPosArgument.blockPos()).executes(GCApiCommands::getOxygenArea))));
@@ -95,6 +102,23 @@ public static void register() {
         });
     }
 
+    private static int dumpSealing(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        ServerLevel level = source.getLevel();
+        List<SealerManager.SpaceStats> stats = level.galacticraft$getSealerManager().getSpaceStats();
+        source.sendSuccess(() -> Component.translatable(Translations.SealingDebug.HEADER, stats.size(), level.dimension().location().toString()), false);
+        for (SealerManager.SpaceStats space : stats) {
+            source.sendSuccess(() -> Component.translatable(Translations.SealingDebug.SPACE, space.sealer().toShortString(), space.volume(), space.sealers(), space.merges(), space.sealed()), false);
+        }
+        return stats.size();
+    }
+
+    private static int dumpOxygenSync(CommandContext<CommandSourceStack> context) {
+        long[] stats = OxygenUpdatePayload.getSentStats();
+        context.getSource().sendSuccess(() -> Component.translatable(Translations.OxygenSyncDebug.STATS, stats[0], stats[1], stats[2], stats[3]), false);
+        return (int) stats[0];
+    }
+
     private static int setOxygen(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
         BlockPos pos = BlockPosArgument.getLoadedBlockPos(context, "start_pos");
         boolean b = BoolArgumentType.getBool(context, "oxygen");
@@ -24,6 +24,7 @@
 
 import com.mojang.serialization.Codec;
 import dev.galacticraft.impl.internal.accessor.ChunkSectionOxygenAccessor;
+import dev.galacticraft.impl.internal.oxygen.SectionOxygen;
 import dev.galacticraft.mod.Constant;
 import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
@@ -48,7 +49,6 @@
 import org.spongepowered.asm.mixin.injection.callback.LocalCapture;
 
 import java.util.BitSet;
-import java.util.Objects;
 
 @Mixin(ChunkSerializer.class)
 public abstract class ChunkSerializerMixin {
@@ -57,7 +57,7 @@ private static void galacticraft_serializeOxygen(ServerLevel world, ChunkAccess
         var accessor = (ChunkSectionOxygenAccessor) section;
         if (!accessor.galacticraft$isEmpty()) {
             CompoundTag nbt = new CompoundTag();
-            nbt.putByteArray(Constant.Nbt.OXYGEN, Objects.requireNonNull(accessor.galacticraft$getBits()).toByteArray());
+            nbt.putByteArray(Constant.Nbt.OXYGEN_SECTION, accessor.galacticraft$getOxygen().toByteArray());
             nbtCompound2.put(Constant.Nbt.GC_API, nbt);
         }
     }
@@ -65,10 +65,14 @@ private static void galacticraft_serializeOxygen(ServerLevel world, ChunkAccess
     @Inject(method = "read", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/entity/ai/village/poi/PoiManager;checkConsistencyWithBlocks(Lnet/minecraft/core/SectionPos;Lnet/minecraft/world/level/chunk/LevelChunkSection;)V"), locals = LocalCapture.CAPTURE_FAILHARD)
     private static void galacticraft_deserializeOxygen(ServerLevel world, PoiManager poiStorage, RegionStorageInfo key, ChunkPos chunkPos, CompoundTag nbt, CallbackInfoReturnable<ProtoChunk> cir, ChunkPos chunkPos2, UpgradeData upgradeData, boolean bl, ListTag listTag, int i, LevelChunkSection[] levelChunkSections, boolean bl2, ChunkSource chunkSource, LevelLightEngine levelLightEngine, Registry registry, Codec codec, boolean bl3, int j, CompoundTag compoundTag, int k, int l, PalettedContainer palettedContainer, PalettedContainerRO palettedContainerRO, LevelChunkSection levelChunkSection, SectionPos sectionPos) {
         CompoundTag apiCompound = compoundTag.getCompound(Constant.Nbt.GC_API);
-        if (apiCompound.contains(Constant.Nbt.OXYGEN, Tag.TAG_BYTE_ARRAY)) {
-            ((ChunkSectionOxygenAccessor) levelChunkSection).galacticraft$setBits(BitSet.valueOf(apiCompound.getByteArray(Constant.Nbt.OXYGEN)));
+        SectionOxygen oxygen = ((ChunkSectionOxygenAccessor) levelChunkSection).galacticraft$getOxygen();
+        if (apiCompound.contains(Constant.Nbt.OXYGEN_SECTION, Tag.TAG_BYTE_ARRAY)) {
+            oxygen.read(apiCompound.getByteArray(Constant.Nbt.OXYGEN_SECTION));
+        } else if (apiCompound.contains(Constant.Nbt.OXYGEN, Tag.TAG_BYTE_ARRAY)) {
+            // Sections saved before the compact format
+            oxygen.readBits(BitSet.valueOf(apiCompound.getByteArray(Constant.Nbt.OXYGEN)));
         } else {
-            ((ChunkSectionOxygenAccessor) levelChunkSection).galacticraft$setBits(null);
+            oxygen.clear();
         }
     }
 }
@@ -26,6 +26,8 @@
 import dev.galacticraft.impl.internal.accessor.ChunkOxygenSyncer;
 import dev.galacticraft.impl.internal.accessor.ChunkSectionOxygenAccessor;
 import dev.galacticraft.impl.network.s2c.OxygenUpdatePayload;
+import it.unimi.dsi.fastutil.shorts.ShortIterator;
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Registry;
 import net.minecraft.world.level.ChunkPos;
@@ -55,7 +57,17 @@ public abstract class LevelChunkMixin extends ChunkAccess implements ChunkOxygen
     @Shadow
     @Final
     Level level;
-    private @Unique short dirtySections = 0b0;
+    /**
+     * The minimum number of ticks between two oxygen updates of a chunk.
+     * Changes made in between are coalesced, so blocks that change back and forth are only sent once.
+     */
+    private static final @Unique int SYNC_INTERVAL = 4;
+
+    // Indexed by section index, so they are not limited by the height of the level
+    private final @Unique BitSet dirtySections = new BitSet();
+    private final @Unique BitSet fullSections = new BitSet();
+    private @Unique ShortOpenHashSet @Nullable [] changedBlocks = null;
+    private @Unique long lastSyncTime = Long.MIN_VALUE;
 
     private LevelChunkMixin(ChunkPos pos, UpgradeData upgradeData, LevelHeightAccessor heightLimitView, Registry<Biome> biome, long inhabitedTime, @Nullable LevelChunkSection[] sectionArrayInitializer, @Nullable BlendingData blendingData) {
         super(pos, upgradeData, heightLimitView, biome, inhabitedTime, sectionArrayInitializer, blendingData);
@@ -72,47 +84,75 @@ private LevelChunkMixin(ChunkPos pos, UpgradeData upgradeData, LevelHeightAccess
         if (inverted != accessor.galacticraft$isInverted(x, y & 15, z)) {
             if (!this.level.isClientSide) {
                 this.unsaved = true;
-                this.dirtySections |= (short) (0b1 << this.getSectionIndex(y));
+                this.markChanged(this.getSectionIndex(y), x + ((y & 15) << 4) + (z << 8));
             }
             accessor.galacticraft$setInverted(x, y & 15, z, inverted);
         }
     }
 
+    @Unique
+    private void markChanged(int section, int pos) {
+        this.dirtySections.set(section);
+        if (this.fullSections.get(section)) return;
+
+        if (this.changedBlocks == null) this.changedBlocks = new ShortOpenHashSet[this.sections.length];
+        ShortOpenHashSet changes = this.changedBlocks[section];
+        if (changes == null) changes = this.changedBlocks[section] = new ShortOpenHashSet();
+        changes.add((short) pos);
+        if (changes.size() > OxygenUpdatePayload.MAX_DELTA_CHANGES) {
+            // Sending the whole section is smaller than sending this many changes
+            this.fullSections.set(section);
+            changes.clear();
+        }
+    }
+
     @Override
     public @Nullable OxygenUpdatePayload.OxygenData[] galacticraft$syncOxygenPacketsToClient() {
         assert !this.level.isClientSide;
-        if (this.dirtySections != 0b0) {
-            int count = 0;
-            for (int i = 0; i < this.sections.length; i++) {
-                if ((this.dirtySections & (0b1 << i)) != 0) {
-                    count++;
-                }
-            }
+        if (this.dirtySections.isEmpty()) return null;
+        long time = this.level.getGameTime();
+        if (time - this.lastSyncTime < SYNC_INTERVAL) return null;
+        this.lastSyncTime = time;
 
-            OxygenUpdatePayload.OxygenData[] data = new OxygenUpdatePayload.OxygenData[count];
-
-            int idx = 0;
-            for (byte i = 0; i < this.sections.length; i++) {
-                if ((this.dirtySections & (0b1 << i)) != 0) {
-                    BitSet data1 = ((ChunkSectionOxygenAccessor) this.sections[i]).galacticraft$getBits();
-                    data[idx++] = new OxygenUpdatePayload.OxygenData(i, data1 == null ? new BitSet(0) : data1);
+        OxygenUpdatePayload.OxygenData[] data = new OxygenUpdatePayload.OxygenData[this.dirtySections.cardinality()];
+        int idx = 0;
+        for (int i = this.dirtySections.nextSetBit(0); i >= 0; i = this.dirtySections.nextSetBit(i + 1)) {
+            ChunkSectionOxygenAccessor accessor = (ChunkSectionOxygenAccessor) this.sections[i];
+            if (this.fullSections.get(i)) {
+                // The payload may be encoded on another thread, so it takes a copy rather than the live section
+                data[idx++] = OxygenUpdatePayload.OxygenData.full(i, accessor.galacticraft$getOxygen().toByteArray());
+            } else {
+                // Changes hold the current value of the block, so changes that were undone are sent as no-ops
+                ShortOpenHashSet changes = this.changedBlocks[i];
+                short[] packed = new short[changes.size()];
+                int j = 0;
+                ShortIterator iterator = changes.iterator();
+                while (iterator.hasNext()) {
+                    short pos = iterator.nextShort();
+                    packed[j++] = OxygenUpdatePayload.OxygenData.change(pos, accessor.galacticraft$isInverted(pos));
                 }
+                changes.clear();
+                data[idx++] = OxygenUpdatePayload.OxygenData.delta(i, packed);
             }
-            this.dirtySections = 0;
-            return data;
         }
-        return null;
+        this.dirtySections.clear();
+        this.fullSections.clear();
+        return data;
     }
 
     @Override
     public void galacticraft$readOxygenUpdate(@NotNull OxygenUpdatePayload.OxygenData[] buf) {
         for (OxygenUpdatePayload.@NotNull OxygenData oxygenData : buf) {
-            ((ChunkSectionOxygenAccessor) this.sections[oxygenData.section()]).galacticraft$setBits(oxygenData.data());
+            oxygenData.apply((ChunkSectionOxygenAccessor) this.sections[oxygenData.section()]);
         }
     }
 
     @Inject(method = "setBlockState", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/level/block/state/BlockState;getBlock()Lnet/minecraft/world/level/block/Block;", ordinal = 0))
     private void resetAirOnBlockChange(BlockPos pos, BlockState blockState, boolean bl, CallbackInfoReturnable<BlockState> cir) {
         this.galacticraft$setInverted(pos.getX() & 15, pos.getY(), pos.getZ() & 15, false);
+        if (!this.level.isClientSide) {
+            this.level.galacticraft$getSealerManager().onBlockChanged(pos);
+            this.level.galacticraft$getOxygenSourceManager().onBlockChanged(pos);
+        }
     }
 }
@@ -23,11 +23,10 @@
 package dev.galacticraft.impl.internal.mixin.oxygen;
 
 import dev.galacticraft.impl.internal.accessor.ChunkSectionOxygenAccessor;
+import dev.galacticraft.impl.internal.oxygen.SectionOxygen;
 import net.minecraft.network.FriendlyByteBuf;
-import net.minecraft.network.VarInt;
 import net.minecraft.world.level.chunk.LevelChunkSection;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
@@ -35,36 +34,23 @@
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
-import java.util.BitSet;
-
 @Mixin(LevelChunkSection.class)
 public abstract class LevelChunkSectionMixin implements ChunkSectionOxygenAccessor {
-    private @Unique
-    @Nullable BitSet bits = null;
+    private final @Unique SectionOxygen oxygen = new SectionOxygen();
 
     @Override
     public boolean galacticraft$isInverted(int pos) {
-        return this.bits != null && this.bits.get(pos);
+        return this.oxygen.get(pos);
     }
 
     @Override
     public void galacticraft$setInverted(int pos, boolean value) {
-        if (value) {
-            if (this.bits == null) this.bits = new BitSet(pos);
-            this.bits.set(pos);
-        } else if (this.bits != null) {
-            this.bits.clear(pos);
-        }
+        this.oxygen.set(pos, value);
     }
 
     @Inject(method = "getSerializedSize", at = @At("RETURN"), cancellable = true)
     private void increaseChunkPacketSize(CallbackInfoReturnable<Integer> cir) {
-        if (this.bits == null) {
-            cir.setReturnValue(cir.getReturnValueI() + VarInt.getByteSize(0));
-        } else {
-            byte[] byteArray = this.bits.toByteArray();
-            cir.setReturnValue(cir.getReturnValueI() + (VarInt.getByteSize(byteArray.length) + byteArray.length));
-        }
+        cir.setReturnValue(cir.getReturnValueI() + this.oxygen.getSerializedSize());
     }
 
     @Inject(method = "hasOnlyAir()Z", at = @At("RETURN"), cancellable = true)
@@ -84,36 +70,21 @@ private void galacticraft_fromPacket(FriendlyByteBuf buf, CallbackInfo ci) {
 
     @Override
     public boolean galacticraft$isEmpty() {
-        return this.bits == null || this.bits.isEmpty();
-    }
-
-    @Override
-    public BitSet galacticraft$getBits() {
-        return this.bits;
+        return this.oxygen.isEmpty();
     }
 
     @Override
-    public void galacticraft$setBits(@Nullable BitSet set) {
-        this.bits = set;
+    public @NotNull SectionOxygen galacticraft$getOxygen() {
+        return this.oxygen;
     }
 
     @Override
     public void galacticraft$writeOxygenPacket(@NotNull FriendlyByteBuf buf) {
-        if (this.bits != null) {
-            byte[] bytes = this.bits.toByteArray();
-            buf.writeByteArray(bytes);
-        } else {
-            buf.writeVarInt(0);
-        }
+        this.oxygen.write(buf);
     }
 
     @Override
     public void galacticraft$readOxygenPacket(@NotNull FriendlyByteBuf buf) {
-        byte[] bytes = buf.readByteArray();
-        if (bytes.length != 0) {
-            this.bits = BitSet.valueOf(bytes);
-        } else {
-            this.bits = null;
-        }
+        this.oxygen.read(buf);
     }
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.impl.internal.oxygen;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.VarInt;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Stores which of the 4096 blocks of a chunk section have their breathability inverted.
+ * <p>
+ * Most sections are either untouched or completely inside a sealed space, so they are stored as a single value.
+ * Sections on the edge of a space are stored as the sorted positions at which the value flips, and only sections
+ * with very fragmented spaces fall back to a plain bitmap.
+ */
+@ApiStatus.Internal
+public final class SectionOxygen {
+    public static final int SIZE = 4096;
+    // Above this many flips the bitmap (512 bytes) is smaller than the flips (2 bytes each)
+    private static final int MAX_FLIPS = 256;
+    private static final byte UNIFORM = 0;
+    private static final byte RUNS = 1;
+    private static final byte BITS = 2;
+
+    private byte mode = UNIFORM;
+    // The value of every block in uniform mode, or the value of the first block in run mode
+    private boolean first = false;
+    // Sorted positions at which the value differs from the previous block, in run mode
+    private short[] flips = null;
+    private int flipCount = 0;
+    // The blocks of the section, in bitmap mode
+    private long[] bits = null;
+    private int cardinality = 0;
+    private int serializedSize = -1;
+
+    public boolean get(int pos) {
+        return switch (this.mode) {
+            case UNIFORM -> this.first;
+            case RUNS -> this.first ^ ((this.flipsUpTo(pos) & 1) != 0);
+            default -> (this.bits[pos >>> 6] & (1L << pos)) != 0;
+        };
+    }
+
+    /**
+     * Sets whether the block at the given position is inverted.
+     *
+     * @param pos the index of the block in the section
+     * @param value whether the block is inverted
+     * @return whether the value changed
+     */
+    public boolean set(int pos, boolean value) {
+        if (this.get(pos) == value) return false;
+        this.serializedSize = -1;
+        switch (this.mode) {
+            case UNIFORM -> {
+                this.mode = RUNS;
+                if (this.flips == null) this.flips = new short[8];
+                this.flipCount = 0;
+                this.flip(pos);
+            }
+            case RUNS -> {
+                this.flip(pos);
+                if (this.flipCount == 0) {
+                    this.mode = UNIFORM;
+                } else if (this.flipCount > MAX_FLIPS) {
+                    this.toBits();
+                }
+            }
+            default -> {
+                this.bits[pos >>> 6] ^= 1L << pos;
+                this.cardinality += value ? 1 : -1;
+                if (this.cardinality == 0 || this.cardinality == SIZE) {
+                    this.mode = UNIFORM;
+                    this.first = value;
+                    this.bits = null;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether no block of the section is inverted.
+     */
+    public boolean isEmpty() {
+        return this.mode == UNIFORM && !this.first;
+    }
+
+    public void clear() {
+        this.mode = UNIFORM;
+        this.first = false;
+        this.flipCount = 0;
+        this.bits = null;
+        this.cardinality = 0;
+        this.serializedSize = -1;
+    }
+
+    /**
+     * Returns the number of bytes written by {@link #write(ByteBuf)}. The size is cached until the section changes.
+     */
+    public int getSerializedSize() {
+        if (this.serializedSize == -1) {
+            this.serializedSize = 1 + switch (this.mode) {
+                case UNIFORM -> 1;
+                case RUNS -> 1 + VarInt.getByteSize(this.flipCount) + this.flipCount * Short.BYTES;
+                default -> SIZE / Byte.SIZE;
+            };
+        }
+        return this.serializedSize;
+    }
+
+    public void write(ByteBuf buf) {
+        buf.writeByte(this.mode);
+        switch (this.mode) {
+            case UNIFORM -> buf.writeBoolean(this.first);
+            case RUNS -> {
+                buf.writeBoolean(this.first);
+                VarInt.write(buf, this.flipCount);
+                for (int i = 0; i < this.flipCount; i++) {
+                    buf.writeShort(this.flips[i]);
+                }
+            }
+            default -> {
+                for (long word : this.bits) {
+                    buf.writeLong(word);
+                }
+            }
+        }
+    }
+
+    public void read(ByteBuf buf) {
+        this.clear();
+        byte mode = buf.readByte();
+        switch (mode) {
+            case UNIFORM -> this.first = buf.readBoolean();
+            case RUNS -> {
+                this.first = buf.readBoolean();
+                this.flipCount = VarInt.read(buf);
+                if (this.flips == null || this.flips.length < this.flipCount) this.flips = new short[this.flipCount];
+                for (int i = 0; i < this.flipCount; i++) {
+                    this.flips[i] = buf.readShort();
+                }
+            }
+            case BITS -> {
+                this.bits = new long[SIZE / Long.SIZE];
+                for (int i = 0; i < this.bits.length; i++) {
+                    this.bits[i] = buf.readLong();
+                    this.cardinality += Long.bitCount(this.bits[i]);
+                }
+            }
+            default -> throw new IllegalArgumentException("Invalid section oxygen mode: " + mode);
+        }
+        this.mode = mode;
+    }
+
+    /**
+     * Returns a copy of this section as written by {@link #write(ByteBuf)}.
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[this.getSerializedSize()];
+        this.write(Unpooled.wrappedBuffer(bytes).writerIndex(0));
+        return bytes;
+    }
+
+    public void read(byte[] bytes) {
+        this.read(Unpooled.wrappedBuffer(bytes));
+    }
+
+    /**
+     * Replaces the contents of this section with a legacy bit set, as stored by older versions.
+     */
+    public void readBits(BitSet set) {
+        this.clear();
+        for (int pos = set.nextSetBit(0); pos >= 0 && pos < SIZE; pos = set.nextSetBit(pos + 1)) {
+            this.set(pos, true);
+        }
+    }
+
+    private int flipsUpTo(int pos) {
+        // The number of flips at or before the position
+        int index = Arrays.binarySearch(this.flips, 0, this.flipCount, (short) pos);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Inverts a single block in run mode, which moves the flips before and after it.
+     */
+    private void flip(int pos) {
+        if (pos == 0) {
+            this.first = !this.first;
+        } else {
+            this.toggleFlip(pos);
+        }
+        if (pos + 1 < SIZE) this.toggleFlip(pos + 1);
+    }
+
+    private void toggleFlip(int pos) {
+        int index = Arrays.binarySearch(this.flips, 0, this.flipCount, (short) pos);
+        if (index >= 0) {
+            System.arraycopy(this.flips, index + 1, this.flips, index, this.flipCount - index - 1);
+            this.flipCount--;
+        } else {
+            index = -index - 1;
+            if (this.flipCount == this.flips.length) this.flips = Arrays.copyOf(this.flips, this.flips.length * 2);
+            System.arraycopy(this.flips, index, this.flips, index + 1, this.flipCount - index);
+            this.flips[index] = (short) pos;
+            this.flipCount++;
+        }
+    }
+
+    private void toBits() {
+        this.cardinality = 0;
+        long[] bits = new long[SIZE / Long.SIZE];
+        boolean value = this.first;
+        int start = 0;
+        for (int i = 0; i <= this.flipCount; i++) {
+            int end = i < this.flipCount ? this.flips[i] : SIZE;
+            if (value) {
+                for (int pos = start; pos < end; pos++) {
+                    bits[pos >>> 6] |= 1L << pos;
+                }
+                this.cardinality += end - start;
+            }
+            value = !value;
+            start = end;
+        }
+        this.mode = BITS;
+        this.bits = bits;
+        this.flipCount = 0;
+    }
+}
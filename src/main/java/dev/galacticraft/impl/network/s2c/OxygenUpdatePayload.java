@@ -23,10 +23,12 @@
 package dev.galacticraft.impl.network.s2c;
 
 import dev.galacticraft.impl.internal.accessor.ChunkSectionOxygenAccessor;
+import dev.galacticraft.impl.internal.oxygen.SectionOxygen;
 import dev.galacticraft.mod.Constant;
 import dev.galacticraft.mod.util.StreamCodecs;
 import io.netty.buffer.ByteBuf;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.network.VarInt;
 import net.minecraft.network.codec.ByteBufCodecs;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
@@ -34,19 +36,47 @@
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.chunk.LevelChunk;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Updates the oxygen of some sections of a chunk on the client.
+ * <p>
+ * Sections with only a few changed blocks are sent as the positions and values of those blocks,
+ * all other sections are sent in full.
+ */
 public record OxygenUpdatePayload(long chunk, OxygenData[] data) implements S2CPayload {
     public static final ResourceLocation ID = Constant.id("oxygen_update");
     public static final Type<OxygenUpdatePayload> TYPE = new Type<>(ID);
-    public static final StreamCodec<ByteBuf, OxygenUpdatePayload> CODEC = StreamCodec.composite(
+    /**
+     * The number of changed blocks above which a section is sent in full.
+     * A full section takes up to 513 bytes, a changed block takes 2 bytes.
+     */
+    public static final int MAX_DELTA_CHANGES = 128;
+    private static final AtomicLong SENT_PACKETS = new AtomicLong();
+    private static final AtomicLong SENT_BYTES = new AtomicLong();
+    private static final AtomicLong SENT_FULL_SECTIONS = new AtomicLong();
+    private static final AtomicLong SENT_DELTA_SECTIONS = new AtomicLong();
+    private static final StreamCodec<ByteBuf, OxygenUpdatePayload> PAYLOAD_CODEC = StreamCodec.composite(
             StreamCodecs.LONG,
             d -> d.chunk,
             StreamCodecs.array(OxygenData.CODEC, OxygenData[]::new),
             d -> d.data,
             OxygenUpdatePayload::new
     );
+    public static final StreamCodec<ByteBuf, OxygenUpdatePayload> CODEC = StreamCodec.of(
+            (buf, payload) -> {
+                int start = buf.writerIndex();
+                PAYLOAD_CODEC.encode(buf, payload);
+                SENT_PACKETS.incrementAndGet();
+                SENT_BYTES.addAndGet(buf.writerIndex() - start);
+                for (OxygenData datum : payload.data) {
+                    (datum.isFull() ? SENT_FULL_SECTIONS : SENT_DELTA_SECTIONS).incrementAndGet();
+                }
+            },
+            PAYLOAD_CODEC
+    );
 
     @Override
     public @NotNull Type<? extends CustomPacketPayload> type() {
@@ -58,20 +88,88 @@ public Runnable handle(ClientPlayNetworking.@NotNull Context context) {
         return () -> {
             LevelChunk chunk = context.client().level.getChunk(ChunkPos.getX(this.chunk), ChunkPos.getZ(this.chunk));
             for (OxygenData datum : this.data) {
-                ChunkSectionOxygenAccessor accessor = (ChunkSectionOxygenAccessor) chunk.getSection(datum.section);
-                accessor.galacticraft$setBits(datum.data);
+                datum.apply((ChunkSectionOxygenAccessor) chunk.getSection(datum.section));
             }
         };
     }
 
-    public record OxygenData(byte section, @NotNull BitSet data) {
-        private static final StreamCodec<ByteBuf, BitSet> BIT_SET_CODEC = ByteBufCodecs.BYTE_ARRAY.map(BitSet::valueOf, BitSet::toByteArray);
-        public static final StreamCodec<ByteBuf, OxygenData> CODEC = StreamCodec.composite(
-                ByteBufCodecs.BYTE,
-                d -> d.section,
-                BIT_SET_CODEC,
-                d -> d.data,
-                OxygenData::new
+    /**
+     * Returns the statistics of the oxygen updates encoded since the server started, for debugging purposes.
+     * Updates sent to the client of an integrated server are not encoded, so they are not counted.
+     *
+     * @return the number of packets, bytes, full sections and delta sections that were sent
+     */
+    public static long[] getSentStats() {
+        return new long[]{SENT_PACKETS.get(), SENT_BYTES.get(), SENT_FULL_SECTIONS.get(), SENT_DELTA_SECTIONS.get()};
+    }
+
+    /**
+     * The oxygen of a single chunk section, either in full or as the blocks that changed.
+     *
+     * @param section the index of the section in the chunk
+     * @param data the section as encoded by {@link SectionOxygen#toByteArray()}, or {@code null} if only changes are sent
+     * @param changes the changed blocks of the section, see {@link #change(int, boolean)}
+     */
+    public record OxygenData(int section, byte @Nullable [] data, short @Nullable [] changes) {
+        private static final int VALUE_BIT = 1 << 12;
+        private static final int POS_MASK = VALUE_BIT - 1;
+        public static final StreamCodec<ByteBuf, OxygenData> CODEC = StreamCodec.of(
+                (buf, data) -> {
+                    VarInt.write(buf, data.section);
+                    buf.writeBoolean(data.isFull());
+                    if (data.data != null) {
+                        ByteBufCodecs.BYTE_ARRAY.encode(buf, data.data);
+                    } else {
+                        VarInt.write(buf, data.changes.length);
+                        for (short change : data.changes) {
+                            buf.writeShort(change);
+                        }
+                    }
+                },
+                buf -> {
+                    int section = VarInt.read(buf);
+                    if (buf.readBoolean()) {
+                        return full(section, ByteBufCodecs.BYTE_ARRAY.decode(buf));
+                    }
+                    short[] changes = new short[VarInt.read(buf)];
+                    for (int i = 0; i < changes.length; i++) {
+                        changes[i] = buf.readShort();
+                    }
+                    return delta(section, changes);
+                }
         );
+
+        public static OxygenData full(int section, byte[] data) {
+            return new OxygenData(section, data, null);
+        }
+
+        public static OxygenData delta(int section, short[] changes) {
+            return new OxygenData(section, null, changes);
+        }
+
+        /**
+         * Packs a changed block of a section.
+         *
+         * @param pos the index of the block in the section
+         * @param value whether the block is inverted
+         * @return the packed change
+         */
+        public static short change(int pos, boolean value) {
+            return (short) (value ? pos | VALUE_BIT : pos);
+        }
+
+        public boolean isFull() {
+            return this.data != null;
+        }
+
+        public void apply(ChunkSectionOxygenAccessor accessor) {
+            if (this.data != null) {
+                accessor.galacticraft$getOxygen().read(this.data);
+            } else {
+                for (short change : this.changes) {
+                    accessor.galacticraft$setInverted(change & POS_MASK, (change & VALUE_BIT) != 0);
+                }
+            }
+        }
     }
 }
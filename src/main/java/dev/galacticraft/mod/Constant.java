@@ -995,6 +995,7 @@ interface Nbt {
         String GC_API = "GCApi";
         String CHANGE_COUNT = "Modified";
         String OXYGEN = "Inversion";
+        String OXYGEN_SECTION = "InversionSection";
         String GEAR_INV = "GearInv";
         String HAS_MASK = "HasMask";
         String HAS_GEAR = "HasGear";
@@ -1037,6 +1038,12 @@ interface Nbt {
         String DOCKED_UUID = "DockedUuid";
         String CAN_CONTENTS = "CanContents";
         String CAN_COUNT = "CanCount";
+        String NEXT_ID = "NextId";
+        String NETWORKS = "Networks";
+        String ID = "Id";
+        String MEMBERS = "Members";
+        String ENDPOINTS = "Endpoints";
+        String MAX_TRANSFER_RATE = "MaxTransferRate";
     }
 
     interface Chunk {
@@ -1169,6 +1176,7 @@ interface Command {
     interface Attachments {
         String SERVER_PLAYER = "server_player";
         String CLIENT_PLAYER = "client_player";
+        String SMALL_ASTEROIDS_PLACED = "small_asteroids_placed";
     }
 
     interface Teleporters {
@@ -23,6 +23,7 @@
 package dev.galacticraft.mod;
 
 import dev.galacticraft.mod.api.config.Config;
+import dev.galacticraft.mod.attachments.GCAttachments;
 import dev.galacticraft.mod.command.GCCommands;
 import dev.galacticraft.mod.config.ConfigImpl;
 import dev.galacticraft.mod.content.*;
@@ -102,6 +103,7 @@ public void onInitialize() {
         GCMachineStatuses.register();
         GCSolarPanelStates.register();
         GCTeleporterTypes.register();
+        GCAttachments.register();
         GCStats.register();
         GCCelestialHandlers.register();
         GCEventHandlers.init();
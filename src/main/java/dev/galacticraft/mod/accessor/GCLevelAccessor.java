@@ -22,12 +22,24 @@
 
 package dev.galacticraft.mod.accessor;
 
+import dev.galacticraft.mod.api.wire.impl.WireNetworkSettler;
+import dev.galacticraft.mod.machine.BubbleSizeSyncer;
+import dev.galacticraft.mod.machine.OxygenSourceManager;
 import dev.galacticraft.mod.machine.SealerManager;
+import dev.galacticraft.mod.machine.SolarManager;
 import dev.galacticraft.mod.misc.footprint.FootprintManager;
 
 public interface GCLevelAccessor {
     SealerManager galacticraft$getSealerManager();
 
+    OxygenSourceManager galacticraft$getOxygenSourceManager();
+
+    BubbleSizeSyncer galacticraft$getBubbleSizeSyncer();
+
+    WireNetworkSettler galacticraft$getWireNetworkSettler();
+
+    SolarManager galacticraft$getSolarManager();
+
     default FootprintManager galacticraft$getFootprintManager() {
         throw new RuntimeException("This should be overridden by mixin!"); // Hopefully this doesn't cause issues with mods with fake worlds
     }
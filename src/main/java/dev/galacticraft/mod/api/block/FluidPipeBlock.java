@@ -31,10 +31,12 @@
 import dev.galacticraft.mod.api.pipe.FluidPipe;
 import dev.galacticraft.mod.content.block.special.fluidpipe.PipeBlockEntity;
 import dev.galacticraft.mod.content.item.StandardWrenchItem;
+import dev.galacticraft.mod.machine.ConductorTopology;
 import dev.galacticraft.mod.util.FluidUtil;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.ItemInteractionResult;
@@ -140,6 +142,14 @@ protected<T extends FluidPipeBlock> MapCodec<T> simpleCodec(BiFunction<BlockBeha
         ).apply(instance, generator));
     }
 
+    @Override
+    protected void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean moved) {
+        if (!state.is(newState.getBlock()) && level instanceof ServerLevel serverLevel) {
+            ConductorTopology.pipes(serverLevel).conductorRemoved(pos.asLong());
+        }
+        super.onRemove(state, level, pos, newState, moved);
+    }
+
     @Override
     protected void onConnectionChanged(Level level, BlockPos thisPos, Direction direction, BlockPos neighborPos) {
         if (level.getBlockEntity(thisPos) instanceof FluidPipe pipe) {
@@ -26,9 +26,11 @@
 import dev.galacticraft.mod.Galacticraft;
 import dev.galacticraft.mod.api.wire.Wire;
 import dev.galacticraft.mod.content.block.entity.networked.WireBlockEntity;
+import dev.galacticraft.mod.machine.ConductorTopology;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
@@ -55,6 +57,14 @@ protected InteractionResult useWithoutItem(BlockState state, Level level, BlockP
         return super.useWithoutItem(state, level, pos, player, hit);
     }
 
+    @Override
+    protected void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean moved) {
+        if (!state.is(newState.getBlock()) && level instanceof ServerLevel serverLevel) {
+            ConductorTopology.wires(serverLevel).conductorRemoved(pos.asLong());
+        }
+        super.onRemove(state, level, pos, newState, moved);
+    }
+
     @Override
     protected void onConnectionChanged(Level level, BlockPos thisPos, Direction direction, BlockPos neighborPos) {
         if (level.getBlockEntity(thisPos) instanceof WireBlockEntity wire) {
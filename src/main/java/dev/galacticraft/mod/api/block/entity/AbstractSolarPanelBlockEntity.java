@@ -29,6 +29,7 @@
 import dev.galacticraft.machinelib.api.storage.StorageSpec;
 import dev.galacticraft.machinelib.api.util.EnergySource;
 import dev.galacticraft.mod.machine.GCMachineStatuses;
+import dev.galacticraft.mod.machine.SolarState;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.server.level.ServerLevel;
@@ -51,12 +52,16 @@ public abstract class AbstractSolarPanelBlockEntity extends MachineBlockEntity i
     public static final float MAX = Mth.PI / 3.0F;
 
     public static final int CHARGE_SLOT = 0;
+    // Sky light is updated a little after the block that changed it, so blockage is checked for a while after each change
+    private static final int EXPOSURE_CHECK_TICKS = 20;
     protected final boolean[] blockage = new boolean[9];
     protected int blocked = 0;
+    private int exposureChecks = EXPOSURE_CHECK_TICKS;
     private final EnergySource energySource = new EnergySource(this);
     public long currentEnergyGeneration = 0;
     private long dayLength = 24000;
     private float tilt = NOON;
+    protected SolarState solarState;
 
     public AbstractSolarPanelBlockEntity(BlockEntityType<? extends AbstractSolarPanelBlockEntity> type, BlockPos pos, BlockState state, StorageSpec spec) {
         super(type, pos, state, spec);
@@ -69,15 +74,43 @@ public void setLevel(Level level) {
         if (holder != null) {
             this.dayLength = holder.value().dayLength();
         }
+        this.solarState = level.galacticraft$getSolarManager().getState(this.dayLength);
+        if (!level.isClientSide) {
+            level.galacticraft$getSolarManager().addPanel(this);
+        }
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        if (this.level != null && !this.level.isClientSide) {
+            this.level.galacticraft$getSolarManager().removePanel(this);
+        }
+    }
+
+    /**
+     * Makes the panel check which of the blocks above it can see the sky again.
+     * Called by the {@link dev.galacticraft.mod.machine.SolarManager} when the heightmap above the panel changes.
+     */
+    public void invalidateExposure() {
+        this.exposureChecks = EXPOSURE_CHECK_TICKS;
     }
 
     @Override
     public void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @NotNull BlockState state, @NotNull ProfilerFiller profiler) {
         profiler.push("charge");
         this.drainPowerToSlot(CHARGE_SLOT);
-        profiler.popPush("blockage");
+        if (this.exposureChecks > 0) {
+            profiler.popPush("blockage");
+            this.exposureChecks--;
+            this.updateBlockage(level, pos);
+        }
+        profiler.pop();
+    }
+
+    private void updateBlockage(@NotNull ServerLevel level, @NotNull BlockPos pos) {
         this.blocked = 0;
-        for (int x = -1; x < 2; x++) { //todo: cache?
+        for (int x = -1; x < 2; x++) {
             for (int z = -1; z < 2; z++) {
                 //noinspection AssignmentUsedAsCondition
                 if (this.blockage[(z + 1) * 3 + (x + 1)] = !level.canSeeSky(pos.offset(x, 2, z))) {
@@ -85,7 +118,6 @@ public void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @Not
                 }
             }
         }
-        profiler.pop();
     }
 
     @Override
@@ -98,20 +130,15 @@ public void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @Not
         MachineStatus status = null;
         double multiplier = this.blocked == 0 ? 1 : (9.0 - this.blocked) / 9.0;
         if (this.blocked > 0) status = GCMachineStatuses.PARTIALLY_GENERATING;
-        if (level.isThundering()) {
+        double weather = level.galacticraft$getSolarManager().getWeatherMultiplier();
+        if (weather < 1.0) {
             if (status == null) status = GCMachineStatuses.PARTIALLY_GENERATING;
-            multiplier *= 0.1;
-        } else if (level.isRaining()) {
-            if (status == null) status = GCMachineStatuses.PARTIALLY_GENERATING;
-            multiplier *= 0.5;
+            multiplier *= weather;
         }
-        long time = level.getDayTime() % this.dayLength;
-        // Don't use this.isDay() because it returns false when it is thundering
-        if (time > this.dayLength / 2) status = GCMachineStatuses.NOT_GENERATING;
-        if (time > this.dayLength / 4) time = (long) (this.dayLength / 2) - time;
+        if (this.solarState.isNight()) status = GCMachineStatuses.NOT_GENERATING;
 
         profiler.push("transaction");
-        this.currentEnergyGeneration = this.calculateEnergyProduction(time, multiplier);
+        this.currentEnergyGeneration = this.calculateEnergyProduction(this.solarState.getTime(), multiplier);
         this.energyStorage().insert(this.currentEnergyGeneration);
         profiler.pop();
         return status == null ? GCMachineStatuses.GENERATING : status;
@@ -125,28 +152,7 @@ public float getTilt(float tickDelta) {
         if (!this.followsSun()) return angle;
 
         if (this.isActive()) {
-            // Angle in radians - 0 noon, pi/2 sunset, pi midnight, 3pi/2 sunrise
-            angle = this.level.getSunAngle(tickDelta);
-
-            if (angle > DUSK && angle < DAWN) {
-                if (this.nightCollection()) {
-                    angle -= Mth.PI;
-                } else {
-                    angle = NOON;
-                }
-            } else if ((angle > SUNSET && angle <= DUSK) || (angle >= DAWN && angle < SUNRISE)) {
-                if (this.nightCollection()) {
-                    angle = -MAX;
-                } else {
-                    angle = NOON;
-                }
-            } else if (angle >= SUNRISE && angle < MIN) {
-                angle = -MAX;
-            } else if (angle <= SUNSET && angle > MAX) {
-                angle = MAX;
-            } else if (angle >= SUNRISE) {
-                angle -= 2 * Mth.PI;
-            }
+            angle = this.solarState.getTilt(tickDelta, this.nightCollection());
         }
 
         this.tilt += Mth.clamp(angle - this.tilt, -SPEED, SPEED);
@@ -161,8 +167,7 @@ public float getTilt(float tickDelta) {
     @Override
     public SolarPanelSource getSource() {
         if (this.level.dimensionType().hasCeiling()) return SolarPanelSource.NO_LIGHT_SOURCE;
-        // Don't use this.isDay() because it returns false when it is thundering
-        if ((this.level.getDayTime() % this.dayLength) > this.dayLength / 2) return SolarPanelSource.NIGHT;
+        if (this.solarState.isNight()) return SolarPanelSource.NIGHT;
         if (this.level.isThundering()) return SolarPanelSource.STORMY;
         if (this.level.isRaining()) return SolarPanelSource.OVERCAST;
         return SolarPanelSource.DAY;
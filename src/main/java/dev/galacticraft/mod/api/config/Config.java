@@ -31,6 +31,8 @@ public interface Config {
 
     long heavyWireTransferLimit();
 
+    boolean batchedWireSettlement();
+
     long machineEnergyStorageSize();
 
     long energyStorageModuleStorageSize();
@@ -61,6 +63,10 @@ public interface Config {
 
     long maxSealingPower();
 
+    boolean asyncSealing();
+
+    boolean multiFluidPipes();
+
     long refineryEnergyConsumptionRate();
 
     long fuelLoaderEnergyConsumptionRate();
@@ -22,6 +22,7 @@
 
 package dev.galacticraft.mod.api.pipe;
 
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.core.BlockPos;
@@ -55,6 +56,13 @@ public interface PipeNetwork {
      */
     long getMaxTransferRate();
 
+    /**
+     * Returns the amount of each fluid that passed through this network during the last tick
+     *
+     * @return the amount of each fluid that passed through this network during the last tick
+     */
+    @NotNull Object2LongMap<FluidVariant> getThroughput();
+
     boolean markedForRemoval();
 
     void markForRemoval();
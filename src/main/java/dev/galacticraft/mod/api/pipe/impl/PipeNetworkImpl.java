@@ -23,12 +23,22 @@
 package dev.galacticraft.mod.api.pipe.impl;
 
 import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.Galacticraft;
 import dev.galacticraft.mod.api.block.FluidPipeBlock;
 import dev.galacticraft.mod.api.pipe.FluidPipe;
 import dev.galacticraft.mod.api.pipe.PipeNetwork;
+import dev.galacticraft.mod.machine.ConductorSplitDetector;
+import dev.galacticraft.mod.machine.ConductorTopology;
+import dev.galacticraft.mod.util.CachedChunkAccess;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
@@ -37,106 +47,246 @@
 import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 
-public class PipeNetworkImpl extends SnapshotParticipant<PipeNetworkImpl.PipeSnapshot> implements PipeNetwork {
+public class PipeNetworkImpl extends SnapshotParticipant<PipeNetworkImpl.PipeSnapshot> implements PipeNetwork, ConductorTopology.Network {
     private final @NotNull ServerLevel level;
+    private final @NotNull ConductorTopology<PipeNetworkImpl> topology;
+    private final int id;
     private final @NotNull Object2ObjectOpenHashMap<BlockPos, Storage<FluidVariant> @Nullable []> pipes = new Object2ObjectOpenHashMap<>(1);
     private final long maxTransferRate;
     private boolean activeTransaction = false;
     private boolean markedForRemoval = false;
     private int tickId;
     private long transferred = 0;
-    private @Nullable FluidVariant currentVariant = null; //can transfer <maxTransferRate> amount of fluid of 1 type per tick
+    private @Nullable FluidVariant currentVariant = null; //can transfer <maxTransferRate> amount of fluid of 1 type per tick, unless fluids share the network
+    // The amount of each fluid moved through the network this tick and during the previous tick
+    private Object2LongOpenHashMap<FluidVariant> transferredByVariant = new Object2LongOpenHashMap<>();
+    private Object2LongOpenHashMap<FluidVariant> lastTransferredByVariant = new Object2LongOpenHashMap<>();
+    // The fluids that had somewhere to go this tick and during the previous tick, whether or not they could be moved
+    private ObjectOpenHashSet<FluidVariant> requestedVariants = new ObjectOpenHashSet<>();
+    private ObjectOpenHashSet<FluidVariant> lastRequestedVariants = new ObjectOpenHashSet<>();
 
     public PipeNetworkImpl(@NotNull ServerLevel level, long maxTransferRate, @NotNull BlockPos pos) {
         this.level = level;
         this.maxTransferRate = maxTransferRate;
         this.tickId = this.level.getServer().getTickCount();
+        this.topology = ConductorTopology.pipes(level);
+        this.id = this.topology.create(this, maxTransferRate);
         this.addPipe(pos, null);
     }
 
-    private void addPipe(@NotNull BlockPos pos, @Nullable FluidPipe pipe) {
-        assert !this.markedForRemoval;
-        if (pipe == null) {
-            pipe = (FluidPipe) this.level.getBlockEntity(pos);
+    private PipeNetworkImpl(@NotNull ServerLevel level, long maxTransferRate, @NotNull ConductorTopology<PipeNetworkImpl> topology, int id) {
+        this.level = level;
+        this.maxTransferRate = maxTransferRate;
+        this.tickId = this.level.getServer().getTickCount();
+        this.topology = topology;
+        this.id = id;
+        this.topology.restore(id, this);
+
+        LongSet members = topology.getMembers(id);
+        LongIterator iterator = members.iterator();
+        while (iterator.hasNext()) {
+            this.pipes.put(BlockPos.of(iterator.nextLong()), null);
         }
-        assert pipe != null : "Attempted to add pipe that does not exist!";
-        assert pos.equals(((BlockEntity) pipe).getBlockPos());
-        assert this.isCompatibleWith(pipe);
+        iterator = members.iterator();
+        while (iterator.hasNext()) {
+            long pos = iterator.nextLong();
+            byte faces = topology.getEndpoints(pos);
+            if (faces != 0) this.restoreEndpoints(BlockPos.of(pos), faces);
+        }
+    }
 
-        if (pipe.getNetwork() != null) {
-            if (pipe.getNetwork() != this && !pipe.getNetwork().markedForRemoval()) {
-                pipe.getNetwork().markForRemoval();
-                this.pipes.putAll(((PipeNetworkImpl) pipe.getNetwork()).pipes);
+    private PipeNetworkImpl(@NotNull ServerLevel level, long maxTransferRate, @NotNull ConductorTopology<PipeNetworkImpl> topology) {
+        this.level = level;
+        this.maxTransferRate = maxTransferRate;
+        this.tickId = this.level.getServer().getTickCount();
+        this.topology = topology;
+        this.id = topology.create(this, maxTransferRate);
+    }
+
+    /**
+     * Returns the network for a pipe that does not have one.
+     * If the pipe belongs to a saved network, that network is restored without walking its pipes again,
+     * and only the neighbours of the pipe are checked against it. Otherwise, a new network is built from the pipe.
+     *
+     * @see ConductorTopology
+     */
+    public static @NotNull PipeNetworkImpl restoreOrCreate(@NotNull ServerLevel level, long maxTransferRate, @NotNull BlockPos pos) {
+        ConductorTopology<PipeNetworkImpl> topology = ConductorTopology.pipes(level);
+        int id = topology.getNetworkId(pos.asLong());
+        if (id != ConductorTopology.NO_NETWORK && topology.getMaxTransferRate(id) == maxTransferRate
+                && level.getBlockEntity(pos) instanceof FluidPipe pipe) {
+            PipeNetworkImpl network = topology.getNetwork(id);
+            if (network == null || network.markedForRemoval) {
+                network = new PipeNetworkImpl(level, maxTransferRate, topology, id);
+            }
+            if (network.pipes.containsKey(pos)) {
+                network.restorePipe(pos, pipe);
+                if (!network.markedForRemoval) return network;
             }
         }
+        return new PipeNetworkImpl(level, maxTransferRate, pos);
+    }
+
+    private void restorePipe(@NotNull BlockPos pos, @NotNull FluidPipe pipe) {
         pipe.setNetwork(this);
-        this.pipes.put(pos, null);
+        for (Direction direction : Constant.Misc.DIRECTIONS) {
+            if (this.markedForRemoval) return;
+            if (!pipe.canConnect(direction)) continue;
+            BlockPos adjacentPos = pos.relative(direction);
+            if (this.pipes.containsKey(adjacentPos)) {
+                // Saved pipes that are not loaded are checked once they are loaded themselves
+                if (!this.level.isLoaded(adjacentPos)) continue;
+                if (this.level.getBlockEntity(adjacentPos) instanceof FluidPipe adjacent && this.isCompatibleWith(adjacent)) continue;
+            }
+            // Merges new pipes, removes saved pipes that are gone and looks up storages
+            this.updateConnection(pos, adjacentPos, direction);
+        }
+    }
 
-        FluidPipeBlock pipeBlock = (FluidPipeBlock) this.level.getBlockState(pos).getBlock();
+    @Override
+    @ApiStatus.Internal
+    public void restoreEndpoints(@NotNull BlockPos pos, byte faces) {
+        if (!this.pipes.containsKey(pos)) return;
+        for (Direction direction : Constant.Misc.DIRECTIONS) {
+            if ((faces & (1 << direction.get3DDataValue())) == 0) continue;
+            BlockPos adjacentPos = pos.relative(direction);
+            if (!this.level.isLoaded(adjacentPos)) continue;
 
+            Storage<FluidVariant> storage = FluidStorage.SIDED.find(this.level, adjacentPos, direction.getOpposite());
+            this.setStorage(pos, direction, storage != null && storage.supportsInsertion() ? storage : null);
+        }
+    }
+
+    @Override
+    @ApiStatus.Internal
+    public void releaseEndpoints(@NotNull BlockPos pos, @NotNull ChunkPos chunk) {
+        Storage<FluidVariant>[] storages = this.pipes.get(pos);
+        if (storages == null) return;
         for (Direction direction : Constant.Misc.DIRECTIONS) {
-            if (pipe.canConnect(direction)) {
-                BlockPos adjacentPos = pos.relative(direction);
-                Block adjacentBlock = this.level.getBlockState(adjacentPos).getBlock();
-                BlockEntity blockEntity = level.getBlockEntity(adjacentPos);
+            if (SectionPos.blockToSectionCoord(pos.getX() + direction.getStepX()) == chunk.x
+                    && SectionPos.blockToSectionCoord(pos.getZ() + direction.getStepZ()) == chunk.z) {
+                // The face stays saved as an endpoint, so that the storage is looked up again when the chunk loads
+                storages[direction.get3DDataValue()] = null;
+            }
+        }
+    }
+
+    private void setStorage(@NotNull BlockPos pos, @NotNull Direction direction, @Nullable Storage<FluidVariant> storage) {
+        Storage<FluidVariant>[] storages = this.pipes.get(pos);
+        if (storage != null) {
+            if (storages == null) {
+                //noinspection unchecked
+                storages = new Storage[6];
+                this.pipes.put(pos.immutable(), storages);
+            }
+            storages[direction.get3DDataValue()] = storage;
+        } else if (storages != null) {
+            storages[direction.get3DDataValue()] = null;
+        }
+        this.topology.setEndpoint(pos.asLong(), direction, storage != null);
+    }
+
+    /**
+     * Adds a pipe and every pipe connected to it that is not part of this network yet.
+     * Other networks that are reached are merged into this one.
+     * The connected pipes are walked breadth first with an explicit queue, so long lines of pipe cannot overflow the stack.
+     */
+    private void addPipe(@NotNull BlockPos pos, @Nullable FluidPipe pipe) {
+        assert !this.markedForRemoval;
+        CachedChunkAccess chunks = new CachedChunkAccess(this.level);
+        if (pipe == null) {
+            pipe = (FluidPipe) chunks.getBlockEntity(pos);
+        }
+        assert pipe != null : "Attempted to add pipe that does not exist!";
+        assert pos.equals(((BlockEntity) pipe).getBlockPos());
+        assert this.isCompatibleWith(pipe);
+
+        LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        this.connect(pos.immutable(), pipe);
+        queue.enqueue(pos.asLong());
+
+        BlockPos.MutableBlockPos current = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos adjacentPos = new BlockPos.MutableBlockPos();
+        // Stop if another network absorbed this one while it was being built, that network has walked the same blocks
+        while (!queue.isEmpty() && !this.markedForRemoval) {
+            current.set(queue.dequeueLong());
+            FluidPipe currentPipe = (FluidPipe) chunks.getBlockEntity(current);
+            assert currentPipe != null : "Pipe was removed while the network was being built!";
+            FluidPipeBlock pipeBlock = (FluidPipeBlock) chunks.getBlockState(current).getBlock();
+
+            for (Direction direction : Constant.Misc.DIRECTIONS) {
+                if (!currentPipe.canConnect(direction)) continue;
+                adjacentPos.setWithOffset(current, direction);
+                BlockState adjacentState = chunks.getBlockState(adjacentPos);
+                BlockEntity blockEntity = chunks.getBlockEntity(adjacentPos);
                 if (blockEntity != null && !blockEntity.isRemoved()) {
-                    if (blockEntity instanceof FluidPipe adjacent && adjacentBlock instanceof FluidPipeBlock adjacentPipe) {
+                    if (blockEntity instanceof FluidPipe adjacent && adjacentState.getBlock() instanceof FluidPipeBlock adjacentPipe) {
                         if (!pipeBlock.color.canConnectTo(adjacentPipe.color)) continue;
                         if (this.isCompatibleWith(adjacent)) {
                             if (adjacent.getNetwork() != this && adjacent.canConnect(direction.getOpposite())) {
-                                this.addPipe(adjacentPos, adjacent);
+                                // Joining the network marks the pipe as visited, so it is only queued once
+                                this.connect(adjacentPos.immutable(), adjacent);
+                                queue.enqueue(adjacentPos.asLong());
                             }
                             continue;
                         }
                     }
                 }
 
-                Storage<FluidVariant> storage = FluidStorage.SIDED.find(this.level, adjacentPos, direction.getOpposite());
+                BlockPos storagePos = adjacentPos.immutable();
+                Storage<FluidVariant> storage = FluidStorage.SIDED.find(this.level, storagePos, adjacentState, blockEntity, direction.getOpposite());
                 if (storage != null && storage.supportsInsertion()) {
-                    //noinspection Java8MapApi
-                    if (this.pipes.get(pos) == null) this.pipes.put(pos, new Storage[6]);
-                    Objects.requireNonNull(this.pipes.get(pos))[direction.get3DDataValue()] = storage;
+                    this.setStorage(current, direction, storage);
                 }
             }
         }
     }
 
-    public void removePipe(@NotNull BlockPos removedPos) {
-        if (!this.level.isLoaded(removedPos)) {
-            Constant.LOGGER.debug("Removing pipe from unloaded chunk, removing entire network");
-            this.markForRemoval();
-            return;
+    private void connect(@NotNull BlockPos pos, @NotNull FluidPipe pipe) {
+        if (pipe.getNetwork() != null) {
+            if (pipe.getNetwork() != this && !pipe.getNetwork().markedForRemoval()) {
+                pipe.getNetwork().markForRemoval();
+                this.pipes.putAll(((PipeNetworkImpl) pipe.getNetwork()).pipes);
+            }
         }
+        pipe.setNetwork(this);
+        this.pipes.put(pos, null);
+        this.topology.add(this.id, pos.asLong());
+    }
 
+    public void removePipe(@NotNull BlockPos removedPos) {
         assert !this.markedForRemoval;
         assert this.pipes.containsKey(removedPos) : "Tried to remove pipe that does not exist!";
 
         this.pipes.remove(removedPos);
+        this.topology.remove(removedPos.asLong());
         if (this.pipes.isEmpty()) {
             this.markForRemoval();
             return;
         }
 
-        List<FluidPipe> adjacent = new ArrayList<>(6);
+        LongArrayList adjacent = new LongArrayList(6);
 
         for (Direction direction : Constant.Misc.DIRECTIONS) {
             BlockPos adjacentPipePos = removedPos.relative(direction);
             if (this.pipes.containsKey(adjacentPipePos)) {
-                FluidPipe pipe1 = (FluidPipe) Objects.requireNonNull(this.level.getBlockEntity(adjacentPipePos));
-                if (pipe1.canConnect(direction.getOpposite())) {
-                    adjacent.add(pipe1); // Don't bother testing if it was unable to connect
+                // Pipes in chunks that are not loaded are still connected, as their segment of the network is only inactive.
+                // Pipes restored from a saved network may have been removed while their chunk was not loaded
+                if (!this.level.isLoaded(adjacentPipePos)
+                        || this.level.getBlockEntity(adjacentPipePos) instanceof FluidPipe pipe1 && pipe1.canConnect(direction.getOpposite())) {
+                    adjacent.add(adjacentPipePos.asLong()); // Don't bother testing if it was unable to connect
                 }
             }
         }
@@ -146,12 +296,38 @@ public void removePipe(@NotNull BlockPos removedPos) {
             return;
         }
 
-        this.markForRemoval();
+        // Only the fragments that were cut off get a new network, the rest of the pipes stay in this one
+        BlockPos.MutableBlockPos from = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos to = new BlockPos.MutableBlockPos();
+        for (LongArrayList fragment : ConductorSplitDetector.findFragments(adjacent, (fromPos, direction, toPos) -> this.isLinked(from.set(fromPos), direction, to.set(toPos)))) {
+            this.splitOff(fragment);
+        }
+    }
+
+    private boolean isLinked(@NotNull BlockPos from, @NotNull Direction direction, @NotNull BlockPos to) {
+        if (!this.pipes.containsKey(to)) return false;
+        // Pipes that are not loaded were connected when the network was saved
+        if (!this.level.isLoaded(from) || !this.level.isLoaded(to)) return true;
+        return this.level.getBlockEntity(from) instanceof FluidPipe pipe && pipe.canConnect(direction)
+                && this.level.getBlockEntity(to) instanceof FluidPipe adjacent && adjacent.canConnect(direction.getOpposite())
+                && this.level.getBlockState(from).getBlock() instanceof FluidPipeBlock pipeBlock
+                && this.level.getBlockState(to).getBlock() instanceof FluidPipeBlock adjacentPipe
+                && pipeBlock.color.canConnectTo(adjacentPipe.color);
+    }
 
-        for (FluidPipe pipe1 : adjacent) {
-            if (pipe1.getNetwork() == this) {
-                pipe1.setNetwork(null);
-                pipe1.forceCreateNetwork();
+    /**
+     * Moves a fragment that was cut off from this network to a new network, without walking its pipes again.
+     */
+    private void splitOff(@NotNull LongArrayList fragment) {
+        PipeNetworkImpl network = new PipeNetworkImpl(this.level, this.maxTransferRate, this.topology);
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        for (int i = 0; i < fragment.size(); i++) {
+            long pos = fragment.getLong(i);
+            mutable.set(pos);
+            network.pipes.put(mutable.immutable(), this.pipes.remove(mutable));
+            this.topology.move(network.id, pos);
+            if (this.level.isLoaded(mutable) && this.level.getBlockEntity(mutable) instanceof FluidPipe pipe) {
+                pipe.setNetwork(network);
             }
         }
     }
@@ -170,14 +346,9 @@ public void updateConnection(@NotNull BlockPos pipePos, @NotNull BlockPos adjace
                 this.removePipe(adjacentPos);
             }
 
+            if (this.markedForRemoval) return;
             Storage<FluidVariant> storage = FluidStorage.SIDED.find(this.level, adjacentPos, direction.getOpposite());
-            if (storage != null && storage.supportsInsertion()) {
-                //noinspection Java8MapApi
-                if (this.pipes.get(pipePos) == null) this.pipes.put(pipePos, new Storage[6]);
-                Objects.requireNonNull(this.pipes.get(pipePos))[direction.get3DDataValue()] = storage;
-            } else if (this.pipes.get(pipePos) != null) {
-                Objects.requireNonNull(this.pipes.get(pipePos))[direction.get3DDataValue()] = null;
-            }
+            this.setStorage(pipePos, direction, storage != null && storage.supportsInsertion() ? storage : null);
         }
     }
 
@@ -187,13 +358,23 @@ public long insert(@NotNull FluidVariant resource, long amount, @NotNull Transac
         this.activeTransaction = true;
 
         if (this.tickId != level.getServer().getTickCount()) {
-            this.tickId = level.getServer().getTickCount();
-            this.transferred = 0;
-            this.currentVariant = null;
+            this.startTick(level.getServer().getTickCount());
+        }
+
+        boolean shared = Galacticraft.CONFIG.multiFluidPipes();
+        long allowed = Math.min(amount, this.maxTransferRate - this.transferred);
+        if (shared) {
+            allowed = Math.min(allowed, this.getShare(resource));
+        } else if (this.currentVariant != null && !this.currentVariant.equals(resource)) {
+            allowed = 0;
         }
 
-        amount = Math.min(amount, this.maxTransferRate - this.transferred);
-        if (amount == 0 || (this.currentVariant != null && !this.currentVariant.equals(resource))) {
+        if (allowed <= 0) {
+            if (shared && amount > 0 && !this.requestedVariants.contains(resource)) {
+                // The other fluids used up the network this tick, so make sure this fluid gets its share next tick
+                this.updateSnapshots(transaction);
+                this.requestedVariants.add(resource);
+            }
             this.activeTransaction = false;
             return 0;
         }
@@ -206,7 +387,7 @@ public long insert(@NotNull FluidVariant resource, long amount, @NotNull Transac
                 for (Storage<FluidVariant> storage : storages) {
                     if (storage != null) {
                         try (Transaction simulation = Transaction.openNested(transaction)) {
-                            long inserted = storage.insert(resource, amount, simulation);
+                            long inserted = storage.insert(resource, allowed, simulation);
                             if (inserted > 0) {
                                 totalRequested += inserted;
                                 requests.put(storage, inserted);
@@ -223,11 +404,12 @@ public long insert(@NotNull FluidVariant resource, long amount, @NotNull Transac
             return 0;
         }
 
-        double ratio = Math.min(1.0, (double) amount / (double) totalRequested);
+        double ratio = Math.min(1.0, (double) allowed / (double) totalRequested);
         final long baseTransferred = this.transferred;
 
         this.updateSnapshots(transaction);
 
+        this.requestedVariants.add(resource);
         this.currentVariant = resource;
         requests.forEach((storage, requested) -> {
             long insert = (long) (requested * ratio);
@@ -236,11 +418,57 @@ public long insert(@NotNull FluidVariant resource, long amount, @NotNull Transac
                 this.transferred += insert;
             }
         });
+        this.transferredByVariant.addTo(resource, this.transferred - baseTransferred);
 
         this.activeTransaction = false;
         return this.transferred - baseTransferred;
     }
 
+    private void startTick(int tickId) {
+        Object2LongOpenHashMap<FluidVariant> last = this.lastTransferredByVariant;
+        ObjectOpenHashSet<FluidVariant> lastRequested = this.lastRequestedVariants;
+        last.clear();
+        lastRequested.clear();
+        if (tickId == this.tickId + 1) {
+            this.lastTransferredByVariant = this.transferredByVariant;
+            this.transferredByVariant = last;
+            this.lastRequestedVariants = this.requestedVariants;
+            this.requestedVariants = lastRequested;
+        } else {
+            this.transferredByVariant.clear();
+            this.requestedVariants.clear();
+        }
+        this.tickId = tickId;
+        this.transferred = 0;
+        this.currentVariant = null;
+    }
+
+    /**
+     * Returns how much of a fluid may still be moved this tick when fluids share the network.
+     * The transfer rate left this tick is split evenly between this fluid and the fluids that had somewhere to go during
+     * the previous tick but have not been inserted yet this tick, so that the first fluid inserted in a tick cannot take all of it.
+     * Whatever a fluid leaves unused stays available to the fluids inserted after it, and a fluid that stops flowing
+     * no longer holds back a part of the network on the next tick.
+     */
+    private long getShare(@NotNull FluidVariant resource) {
+        int waiting = 0;
+        for (FluidVariant variant : this.lastRequestedVariants) {
+            if (!variant.equals(resource) && !this.requestedVariants.contains(variant)) waiting++;
+        }
+        return (this.maxTransferRate - this.transferred + waiting) / (waiting + 1);
+    }
+
+    @Override
+    public @NotNull Object2LongMap<FluidVariant> getThroughput() {
+        int tickId = this.level.getServer().getTickCount();
+        if (this.tickId == tickId) {
+            return Object2LongMaps.unmodifiable(this.lastTransferredByVariant);
+        } else if (this.tickId == tickId - 1) {
+            return Object2LongMaps.unmodifiable(this.transferredByVariant);
+        }
+        return Object2LongMaps.emptyMap();
+    }
+
     @Override
     public long getMaxTransferRate() {
         return this.maxTransferRate;
@@ -254,6 +482,7 @@ public boolean markedForRemoval() {
     @Override
     public void markForRemoval() {
         this.markedForRemoval = true;
+        this.topology.dissolve(this.id, this);
     }
 
     @Override
@@ -276,18 +505,23 @@ public String toString() {
                 ", tickId=" + tickId +
                 ", transferred=" + transferred +
                 ", currentVariant=" + currentVariant +
+                ", throughput=" + getThroughput() +
                 '}';
     }
 
     @Override
     protected PipeSnapshot createSnapshot() {
-        return new PipeSnapshot(this.currentVariant, this.transferred);
+        return new PipeSnapshot(this.currentVariant, this.transferred, new Object2LongOpenHashMap<>(this.transferredByVariant), new ObjectOpenHashSet<>(this.requestedVariants));
     }
 
     @Override
     protected void readSnapshot(PipeSnapshot snapshot) {
         this.currentVariant = snapshot.variant;
         this.transferred = snapshot.transferred;
+        this.transferredByVariant.clear();
+        this.transferredByVariant.putAll(snapshot.transferredByVariant);
+        this.requestedVariants.clear();
+        this.requestedVariants.addAll(snapshot.requestedVariants);
     }
 
     @ApiStatus.Internal
@@ -296,6 +530,6 @@ protected void readSnapshot(PipeSnapshot snapshot) {
         return pipes;
     }
 
-    public record PipeSnapshot(FluidVariant variant, long transferred) {
+    public record PipeSnapshot(FluidVariant variant, long transferred, Object2LongMap<FluidVariant> transferredByVariant, Set<FluidVariant> requestedVariants) {
     }
 }
\ No newline at end of file
@@ -23,18 +23,26 @@
 package dev.galacticraft.mod.api.wire.impl;
 
 import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.Galacticraft;
 import dev.galacticraft.mod.api.wire.Wire;
 import dev.galacticraft.mod.api.wire.WireNetwork;
-import dev.galacticraft.mod.content.block.entity.networked.WireBlockEntity;
-import it.unimi.dsi.fastutil.objects.Object2LongMap;
-import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import dev.galacticraft.mod.machine.ConductorSplitDetector;
+import dev.galacticraft.mod.machine.ConductorTopology;
+import dev.galacticraft.mod.util.CachedChunkAccess;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
 import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
@@ -42,91 +50,242 @@
 import org.jetbrains.annotations.VisibleForTesting;
 import team.reborn.energy.api.EnergyStorage;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
 
-public class WireNetworkImpl extends SnapshotParticipant<Long> implements WireNetwork {
+public class WireNetworkImpl extends SnapshotParticipant<WireNetworkImpl.Snapshot> implements WireNetwork, ConductorTopology.Network {
+    private static final EnergyStorage[] NO_CONSUMERS = new EnergyStorage[0];
+
     private final @NotNull ServerLevel level;
+    private final @NotNull ConductorTopology<WireNetworkImpl> topology;
+    private final int id;
     private final @NotNull Object2ObjectOpenHashMap<BlockPos, EnergyStorage @Nullable []> wires = new Object2ObjectOpenHashMap<>(1);
     private final long maxTransferRate;
     private boolean markedForRemoval = false;
     private boolean activeTransaction = false;
     private long tickId;
     private long transferred = 0;
+    // Every storage attached to the network once, or null if the wires have changed since it was built
+    private EnergyStorage @Nullable [] consumers = null;
+    // How much each consumer can still accept this tick, or null if it has not been queried yet this tick
+    private long @Nullable [] demand = null;
+    private long totalDemand = 0;
+    // Energy deposited by producers that has not been settled yet, only used with batched settlement
+    private long deposited = 0;
 
     public WireNetworkImpl(@NotNull ServerLevel level, long maxTransferRate, @NotNull BlockPos pos) {
         this.level = level;
         this.maxTransferRate = maxTransferRate;
         this.tickId = this.level.getServer().getTickCount();
+        this.topology = ConductorTopology.wires(level);
+        this.id = this.topology.create(this, maxTransferRate);
         this.addWire(pos, null);
     }
 
+    private WireNetworkImpl(@NotNull ServerLevel level, long maxTransferRate, @NotNull ConductorTopology<WireNetworkImpl> topology, int id) {
+        this.level = level;
+        this.maxTransferRate = maxTransferRate;
+        this.tickId = this.level.getServer().getTickCount();
+        this.topology = topology;
+        this.id = id;
+        this.topology.restore(id, this);
+
+        LongSet members = topology.getMembers(id);
+        LongIterator iterator = members.iterator();
+        while (iterator.hasNext()) {
+            this.wires.put(BlockPos.of(iterator.nextLong()), null);
+        }
+        iterator = members.iterator();
+        while (iterator.hasNext()) {
+            long pos = iterator.nextLong();
+            byte faces = topology.getEndpoints(pos);
+            if (faces != 0) this.restoreEndpoints(BlockPos.of(pos), faces);
+        }
+    }
+
+    private WireNetworkImpl(@NotNull ServerLevel level, long maxTransferRate, @NotNull ConductorTopology<WireNetworkImpl> topology) {
+        this.level = level;
+        this.maxTransferRate = maxTransferRate;
+        this.tickId = this.level.getServer().getTickCount();
+        this.topology = topology;
+        this.id = topology.create(this, maxTransferRate);
+    }
+
+    /**
+     * Returns the network for a wire that does not have one.
+     * If the wire belongs to a saved network, that network is restored without walking its wires again,
+     * and only the neighbours of the wire are checked against it. Otherwise, a new network is built from the wire.
+     *
+     * @see ConductorTopology
+     */
+    public static @NotNull WireNetworkImpl restoreOrCreate(@NotNull ServerLevel level, long maxTransferRate, @NotNull BlockPos pos) {
+        ConductorTopology<WireNetworkImpl> topology = ConductorTopology.wires(level);
+        int id = topology.getNetworkId(pos.asLong());
+        if (id != ConductorTopology.NO_NETWORK && topology.getMaxTransferRate(id) == maxTransferRate
+                && level.getBlockEntity(pos) instanceof Wire wire) {
+            WireNetworkImpl network = topology.getNetwork(id);
+            if (network == null || network.markedForRemoval) {
+                network = new WireNetworkImpl(level, maxTransferRate, topology, id);
+            }
+            if (network.wires.containsKey(pos)) {
+                network.restoreWire(pos, wire);
+                if (!network.markedForRemoval) return network;
+            }
+        }
+        return new WireNetworkImpl(level, maxTransferRate, pos);
+    }
+
+    private void restoreWire(@NotNull BlockPos pos, @NotNull Wire wire) {
+        wire.setNetwork(this);
+        for (Direction direction : Constant.Misc.DIRECTIONS) {
+            if (this.markedForRemoval) return;
+            if (!wire.canConnect(direction)) continue;
+            BlockPos adjacentPos = pos.relative(direction);
+            if (this.wires.containsKey(adjacentPos)) {
+                // Saved wires that are not loaded are checked once they are loaded themselves
+                if (!this.level.isLoaded(adjacentPos)) continue;
+                if (this.level.getBlockEntity(adjacentPos) instanceof Wire adjacent && this.isCompatibleWith(adjacent)) continue;
+            }
+            // Merges new wires, removes saved wires that are gone and looks up storages
+            this.updateConnection(pos, adjacentPos, direction);
+        }
+    }
+
+    @Override
+    @ApiStatus.Internal
+    public void restoreEndpoints(@NotNull BlockPos pos, byte faces) {
+        if (!this.wires.containsKey(pos)) return;
+        for (Direction direction : Constant.Misc.DIRECTIONS) {
+            if ((faces & (1 << direction.get3DDataValue())) == 0) continue;
+            BlockPos adjacentPos = pos.relative(direction);
+            if (!this.level.isLoaded(adjacentPos)) continue;
+
+            EnergyStorage storage = EnergyStorage.SIDED.find(this.level, adjacentPos, direction.getOpposite());
+            this.setStorage(pos, direction, storage != null && storage.supportsInsertion() ? storage : null);
+        }
+        this.invalidateConsumers();
+    }
+
+    @Override
+    @ApiStatus.Internal
+    public void releaseEndpoints(@NotNull BlockPos pos, @NotNull ChunkPos chunk) {
+        EnergyStorage[] storages = this.wires.get(pos);
+        if (storages == null) return;
+        for (Direction direction : Constant.Misc.DIRECTIONS) {
+            if (SectionPos.blockToSectionCoord(pos.getX() + direction.getStepX()) == chunk.x
+                    && SectionPos.blockToSectionCoord(pos.getZ() + direction.getStepZ()) == chunk.z) {
+                // The face stays saved as an endpoint, so that the storage is looked up again when the chunk loads
+                storages[direction.get3DDataValue()] = null;
+            }
+        }
+        this.invalidateConsumers();
+    }
+
+    private void setStorage(@NotNull BlockPos pos, @NotNull Direction direction, @Nullable EnergyStorage storage) {
+        EnergyStorage[] storages = this.wires.get(pos);
+        if (storage != null) {
+            if (storages == null) {
+                storages = new EnergyStorage[6];
+                this.wires.put(pos.immutable(), storages);
+            }
+            storages[direction.get3DDataValue()] = storage;
+        } else if (storages != null) {
+            storages[direction.get3DDataValue()] = null;
+        }
+        this.topology.setEndpoint(pos.asLong(), direction, storage != null);
+    }
+
+    /**
+     * Adds a wire and every wire connected to it that is not part of this network yet.
+     * Other networks that are reached are merged into this one.
+     * The connected wires are walked breadth first with an explicit queue, so long lines of wire cannot overflow the stack.
+     */
     private void addWire(@NotNull BlockPos pos, @Nullable Wire wire) {
         assert !this.markedForRemoval;
+        CachedChunkAccess chunks = new CachedChunkAccess(this.level);
         if (wire == null) {
-            wire = (Wire) this.level.getBlockEntity(pos);
+            wire = (Wire) chunks.getBlockEntity(pos);
         }
         assert wire != null : "Attempted to add wire that does not exist!";
         assert pos.equals(((BlockEntity) wire).getBlockPos());
         assert this.isCompatibleWith(wire);
 
-        if (wire.getNetwork() != null) {
-            if (wire.getNetwork() != this && !wire.getNetwork().markedForRemoval()) {
-                wire.getNetwork().markForRemoval();
-                this.wires.putAll(((WireNetworkImpl) wire.getNetwork()).wires);
-            }
-        }
-        wire.setNetwork(this);
-        this.wires.put(pos, null);
-
-        for (Direction direction : Constant.Misc.DIRECTIONS) {
-            if (wire.canConnect(direction)) {
-                BlockPos adjacentPos = pos.relative(direction);
-                BlockEntity blockEntity = level.getBlockEntity(adjacentPos);
+        LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        this.connect(pos.immutable(), wire);
+        queue.enqueue(pos.asLong());
+
+        BlockPos.MutableBlockPos current = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos adjacentPos = new BlockPos.MutableBlockPos();
+        // Stop if another network absorbed this one while it was being built, that network has walked the same blocks
+        while (!queue.isEmpty() && !this.markedForRemoval) {
+            current.set(queue.dequeueLong());
+            Wire currentWire = (Wire) chunks.getBlockEntity(current);
+            assert currentWire != null : "Wire was removed while the network was being built!";
+
+            for (Direction direction : Constant.Misc.DIRECTIONS) {
+                if (!currentWire.canConnect(direction)) continue;
+                adjacentPos.setWithOffset(current, direction);
+                BlockEntity blockEntity = chunks.getBlockEntity(adjacentPos);
                 if (blockEntity != null && !blockEntity.isRemoved()) {
                     if (blockEntity instanceof Wire adjacent && this.isCompatibleWith(adjacent)) {
                         if (adjacent.getNetwork() != this && adjacent.canConnect(direction.getOpposite())) {
-                            this.addWire(adjacentPos, adjacent);
+                            // Joining the network marks the wire as visited, so it is only queued once
+                            this.connect(adjacentPos.immutable(), adjacent);
+                            queue.enqueue(adjacentPos.asLong());
                         }
                         continue;
                     }
                 }
 
-                EnergyStorage storage = EnergyStorage.SIDED.find(this.level, adjacentPos, direction.getOpposite());
+                BlockPos storagePos = adjacentPos.immutable();
+                EnergyStorage storage = EnergyStorage.SIDED.find(this.level, storagePos, chunks.getBlockState(storagePos), blockEntity, direction.getOpposite());
                 if (storage != null && storage.supportsInsertion()) {
-                    //noinspection Java8MapApi
-                    if (this.wires.get(pos) == null) this.wires.put(pos, new EnergyStorage[6]);
-                    Objects.requireNonNull(this.wires.get(pos))[direction.get3DDataValue()] = storage;
+                    this.setStorage(current, direction, storage);
                 }
             }
         }
     }
 
-    public void removeWire(@NotNull BlockPos removedPos) {
-        if (!this.level.isLoaded(removedPos)) {
-            Constant.LOGGER.debug("Removing wire from unloaded chunk, removing entire network");
-            this.markForRemoval();
-            return;
+    private void connect(@NotNull BlockPos pos, @NotNull Wire wire) {
+        if (wire.getNetwork() != null) {
+            if (wire.getNetwork() != this && !wire.getNetwork().markedForRemoval()) {
+                WireNetworkImpl network = (WireNetworkImpl) wire.getNetwork();
+                // Take over the energy that is still waiting to be settled before the other network drops it
+                if (network.deposited > 0) {
+                    if (this.deposited == 0) this.level.galacticraft$getWireNetworkSettler().schedule(this);
+                    this.deposited += network.deposited;
+                    network.deposited = 0;
+                }
+                network.markForRemoval();
+                this.wires.putAll(network.wires);
+            }
         }
+        wire.setNetwork(this);
+        this.wires.put(pos, null);
+        this.topology.add(this.id, pos.asLong());
+        this.invalidateConsumers();
+    }
 
+    public void removeWire(@NotNull BlockPos removedPos) {
         assert !this.markedForRemoval;
         assert this.wires.containsKey(removedPos) : "Tried to remove wire that does not exist!";
 
         this.wires.remove(removedPos);
+        this.topology.remove(removedPos.asLong());
+        this.invalidateConsumers();
         if (this.wires.isEmpty()) {
             this.markForRemoval();
             return;
         }
 
-        List<Wire> adjacent = new ArrayList<>(6);
+        LongArrayList adjacent = new LongArrayList(6);
 
         for (Direction direction : Constant.Misc.DIRECTIONS) {
             BlockPos adjacentWirePos = removedPos.relative(direction);
             if (this.wires.containsKey(adjacentWirePos)) {
-                Wire wire1 = (Wire) Objects.requireNonNull(this.level.getBlockEntity(adjacentWirePos));
-                if (wire1.canConnect(direction.getOpposite())) {
-                    adjacent.add(wire1); // Don't bother testing if it was unable to connect
+                // Wires in chunks that are not loaded are still connected, as their segment of the network is only inactive.
+                // Wires restored from a saved network may have been removed while their chunk was not loaded
+                if (!this.level.isLoaded(adjacentWirePos)
+                        || this.level.getBlockEntity(adjacentWirePos) instanceof Wire wire1 && wire1.canConnect(direction.getOpposite())) {
+                    adjacent.add(adjacentWirePos.asLong()); // Don't bother testing if it was unable to connect
                 }
             }
         }
@@ -136,14 +295,38 @@ public void removeWire(@NotNull BlockPos removedPos) {
             return;
         }
 
-        this.markForRemoval();
+        // Only the fragments that were cut off get a new network, the rest of the wires stay in this one
+        BlockPos.MutableBlockPos from = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos to = new BlockPos.MutableBlockPos();
+        for (LongArrayList fragment : ConductorSplitDetector.findFragments(adjacent, (fromPos, direction, toPos) -> this.isLinked(from.set(fromPos), direction, to.set(toPos)))) {
+            this.splitOff(fragment);
+        }
+    }
+
+    private boolean isLinked(@NotNull BlockPos from, @NotNull Direction direction, @NotNull BlockPos to) {
+        if (!this.wires.containsKey(to)) return false;
+        // Wires that are not loaded were connected when the network was saved
+        if (!this.level.isLoaded(from) || !this.level.isLoaded(to)) return true;
+        return this.level.getBlockEntity(from) instanceof Wire wire && wire.canConnect(direction)
+                && this.level.getBlockEntity(to) instanceof Wire adjacent && adjacent.canConnect(direction.getOpposite());
+    }
 
-        for (Wire wire1 : adjacent) {
-            if (wire1.getNetwork() == this) {
-                wire1.setNetwork(null);
-                ((WireBlockEntity) wire1).createNetwork();
+    /**
+     * Moves a fragment that was cut off from this network to a new network, without walking its wires again.
+     */
+    private void splitOff(@NotNull LongArrayList fragment) {
+        WireNetworkImpl network = new WireNetworkImpl(this.level, this.maxTransferRate, this.topology);
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        for (int i = 0; i < fragment.size(); i++) {
+            long pos = fragment.getLong(i);
+            mutable.set(pos);
+            network.wires.put(mutable.immutable(), this.wires.remove(mutable));
+            this.topology.move(network.id, pos);
+            if (this.level.isLoaded(mutable) && this.level.getBlockEntity(mutable) instanceof Wire wire) {
+                wire.setNetwork(network);
             }
         }
+        this.invalidateConsumers();
     }
 
     @Override
@@ -160,15 +343,53 @@ public void updateConnection(@NotNull BlockPos wirePos, @NotNull BlockPos adjace
                 this.removeWire(adjacentPos);
             }
 
+            if (this.markedForRemoval) return;
             EnergyStorage storage = EnergyStorage.SIDED.find(this.level, adjacentPos, direction.getOpposite());
-            if (storage != null && storage.supportsInsertion()) {
-                //noinspection Java8MapApi
-                if (this.wires.get(wirePos) == null) this.wires.put(wirePos, new EnergyStorage[6]);
-                Objects.requireNonNull(this.wires.get(wirePos))[direction.get3DDataValue()] = storage;
-            } else if (this.wires.get(wirePos) != null) {
-                Objects.requireNonNull(this.wires.get(wirePos))[direction.get3DDataValue()] = null;
+            this.setStorage(wirePos, direction, storage != null && storage.supportsInsertion() ? storage : null);
+            this.invalidateConsumers();
+        }
+    }
+
+    private void invalidateConsumers() {
+        this.consumers = null;
+        this.demand = null;
+    }
+
+    private EnergyStorage @NotNull [] getConsumers() {
+        if (this.consumers == null) {
+            // A storage can be attached to several wires, but it should only be offered energy once
+            ObjectLinkedOpenHashSet<EnergyStorage> consumers = new ObjectLinkedOpenHashSet<>();
+            for (EnergyStorage[] storages : this.wires.values()) {
+                if (storages != null) {
+                    for (EnergyStorage storage : storages) {
+                        if (storage != null) consumers.add(storage);
+                    }
+                }
             }
+            this.consumers = consumers.isEmpty() ? NO_CONSUMERS : consumers.toArray(NO_CONSUMERS);
         }
+        return this.consumers;
+    }
+
+    /**
+     * Asks every consumer how much energy it can accept, once per tick.
+     * Later inserts in the same tick only subtract what they delivered.
+     */
+    private long @NotNull [] getDemand(EnergyStorage @NotNull [] consumers, @NotNull TransactionContext transaction) {
+        if (this.demand == null) {
+            long[] demand = new long[consumers.length];
+            long total = 0;
+            for (int i = 0; i < consumers.length; i++) {
+                try (Transaction simulation = Transaction.openNested(transaction)) {
+                    demand[i] = consumers[i].insert(this.maxTransferRate, simulation);
+                    total += demand[i];
+                    simulation.abort();
+                }
+            }
+            this.demand = demand;
+            this.totalDemand = total;
+        }
+        return this.demand;
     }
 
     @Override
@@ -179,6 +400,7 @@ public long insert(long amount, @NotNull TransactionContext transaction) {
         if (this.tickId != level.getServer().getTickCount()) {
             this.tickId = level.getServer().getTickCount();
             this.transferred = 0;
+            this.demand = null;
         }
 
         amount = Math.min(amount, this.maxTransferRate - this.transferred);
@@ -186,48 +408,77 @@ public long insert(long amount, @NotNull TransactionContext transaction) {
             this.activeTransaction = false;
             return 0;
         }
-        long totalRequested = 0;
-        Object2LongMap<EnergyStorage> requests = new Object2LongOpenHashMap<>();
-
-        for (EnergyStorage[] storages : this.wires.values()) {
-            if (storages != null) {
-                for (EnergyStorage storage : storages) {
-                    if (storage != null) {
-                        try (Transaction simulation = Transaction.openNested(transaction)) {
-                            long inserted = storage.insert(amount, simulation);
-                            if (inserted > 0) {
-                                totalRequested += inserted;
-                                requests.put(storage, inserted);
-                            }
-                            simulation.abort();
-                        }
-                    }
-                }
-            }
-        }
 
-        if (totalRequested == 0) {
+        EnergyStorage[] consumers = this.getConsumers();
+        long[] demand = this.getDemand(consumers, transaction);
+        if (this.totalDemand == 0) {
             this.activeTransaction = false;
             return 0;
         }
 
-        double ratio = Math.min(1.0, (double) amount / (double) totalRequested);
+        if (Galacticraft.CONFIG.batchedWireSettlement()) {
+            // Only take as much as the consumers asked for this tick, the energy is distributed when the tick ends
+            long accepted = Math.min(amount, this.totalDemand - this.deposited);
+            if (accepted > 0) {
+                this.updateSnapshots(transaction);
+                if (this.deposited == 0) this.level.galacticraft$getWireNetworkSettler().schedule(this);
+                this.deposited += accepted;
+                this.transferred += accepted;
+            }
+            this.activeTransaction = false;
+            return Math.max(accepted, 0);
+        }
+
+        double ratio = Math.min(1.0, (double) amount / (double) this.totalDemand);
         final long baseTransferred = this.transferred;
 
         this.updateSnapshots(transaction);
 
-        requests.forEach((storage, requested) -> {
+        for (int i = 0; i < consumers.length; i++) {
+            long requested = demand[i];
             long insert = (long) (requested * ratio);
             if (insert > 0) {
-                insert = storage.insert(insert, transaction);
-                this.transferred += insert;
+                long inserted = consumers[i].insert(insert, transaction);
+                this.transferred += inserted;
+                // A consumer that accepted less than it asked for is full
+                long remaining = inserted < insert ? 0 : requested - inserted;
+                this.totalDemand -= requested - remaining;
+                demand[i] = remaining;
             }
-        });
+        }
 
         this.activeTransaction = false;
         return this.transferred - baseTransferred;
     }
 
+    /**
+     * Distributes the energy deposited during this tick to the consumers, in proportion to their demand.
+     * Energy that could not be delivered is kept for the next tick.
+     *
+     * @param transaction the transaction shared by all networks that are settled this tick
+     */
+    void settle(@NotNull TransactionContext transaction) {
+        if (this.markedForRemoval || this.deposited <= 0) return;
+        this.activeTransaction = true;
+
+        EnergyStorage[] consumers = this.getConsumers();
+        long[] demand = this.getDemand(consumers, transaction);
+        if (this.totalDemand > 0) {
+            this.updateSnapshots(transaction);
+            double ratio = Math.min(1.0, (double) this.deposited / (double) this.totalDemand);
+            for (int i = 0; i < consumers.length; i++) {
+                long insert = (long) (demand[i] * ratio);
+                if (insert > 0) {
+                    this.deposited -= consumers[i].insert(Math.min(insert, this.deposited), transaction);
+                }
+            }
+        }
+        this.demand = null;
+        if (this.deposited > 0) this.level.galacticraft$getWireNetworkSettler().schedule(this);
+
+        this.activeTransaction = false;
+    }
+
     @Override
     public long getMaxTransferRate() {
         return this.maxTransferRate;
@@ -241,6 +492,9 @@ public boolean markedForRemoval() {
     @Override
     public void markForRemoval() {
         this.markedForRemoval = true;
+        // The producers of deposited energy are not known anymore, so energy that was not settled is lost with the network
+        this.deposited = 0;
+        this.topology.dissolve(this.id, this);
     }
 
     @Override
@@ -257,6 +511,7 @@ public String toString() {
                 ", maxTransferRate=" + maxTransferRate +
                 ", tickId=" + tickId +
                 ", transferred=" + transferred +
+                ", deposited=" + deposited +
                 '}';
     }
 
@@ -267,12 +522,23 @@ public String toString() {
     }
 
     @Override
-    protected Long createSnapshot() {
-        return this.transferred;
+    protected Snapshot createSnapshot() {
+        return new Snapshot(this.transferred, this.deposited, this.demand == null ? null : this.demand.clone(), this.totalDemand);
     }
 
     @Override
-    protected void readSnapshot(Long snapshot) {
-        this.transferred = snapshot;
+    protected void readSnapshot(Snapshot snapshot) {
+        this.transferred = snapshot.transferred();
+        this.deposited = snapshot.deposited();
+        if (snapshot.demand() != null && this.demand != null && snapshot.demand().length == this.demand.length) {
+            this.demand = snapshot.demand();
+            this.totalDemand = snapshot.totalDemand();
+        } else {
+            // The consumers changed during the transaction, so they have to be asked again
+            this.demand = null;
+        }
+    }
+
+    protected record Snapshot(long transferred, long deposited, long @Nullable [] demand, long totalDemand) {
     }
 }
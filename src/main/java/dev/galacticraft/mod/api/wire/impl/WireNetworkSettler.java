@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.api.wire.impl;
+
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Settles the energy that producers deposited into the wire networks of a level, once at the end of every tick.
+ *
+ * @see dev.galacticraft.mod.api.config.Config#batchedWireSettlement()
+ */
+@ApiStatus.Internal
+public class WireNetworkSettler {
+    private ReferenceLinkedOpenHashSet<WireNetworkImpl> pending = new ReferenceLinkedOpenHashSet<>();
+    private ReferenceLinkedOpenHashSet<WireNetworkImpl> settling = new ReferenceLinkedOpenHashSet<>();
+
+    void schedule(WireNetworkImpl network) {
+        this.pending.add(network);
+    }
+
+    public void settle() {
+        if (this.pending.isEmpty()) return;
+
+        // Networks with energy left over schedule themselves again for the next tick
+        ReferenceLinkedOpenHashSet<WireNetworkImpl> networks = this.pending;
+        this.pending = this.settling;
+        this.settling = networks;
+
+        try (Transaction transaction = Transaction.openOuter()) {
+            for (WireNetworkImpl network : networks) {
+                network.settle(transaction);
+            }
+            transaction.commit();
+        }
+        networks.clear();
+    }
+}
@@ -22,6 +22,7 @@
 
 package dev.galacticraft.mod.attachments;
 
+import com.mojang.serialization.Codec;
 import dev.galacticraft.mod.Constant;
 import dev.galacticraft.mod.Constant.Attachments;
 import net.fabricmc.fabric.api.attachment.v1.AttachmentRegistry;
@@ -36,4 +37,12 @@ public final class GCAttachments {
 
     public static final AttachmentType<GCClientPlayer> CLIENT_PLAYER = AttachmentRegistry.<GCClientPlayer>builder()
             .buildAndRegister(Constant.id(Attachments.CLIENT_PLAYER));
+
+    // Saved with the chunk, so that the small asteroid blocks of a chunk are never placed twice
+    public static final AttachmentType<Boolean> SMALL_ASTEROIDS_PLACED = AttachmentRegistry.<Boolean>builder()
+            .persistent(Codec.BOOL)
+            .buildAndRegister(Constant.id(Attachments.SMALL_ASTEROIDS_PLACED));
+
+    public static void register() {
+    }
 }
@@ -23,6 +23,8 @@
 package dev.galacticraft.mod.compat.waila;
 
 import dev.galacticraft.mod.compat.waila.provider.OxygenLevelProvider;
+import dev.galacticraft.mod.compat.waila.provider.PipeThroughputProvider;
+import dev.galacticraft.mod.content.block.special.fluidpipe.PipeBlockEntity;
 import mcp.mobius.waila.api.IClientRegistrar;
 import mcp.mobius.waila.api.IWailaClientPlugin;
 import net.minecraft.world.entity.LivingEntity;
@@ -31,5 +33,6 @@ public class GalacticraftWailaClientPlugin implements IWailaClientPlugin {
     @Override
     public void register(IClientRegistrar registrar) {
         registrar.body(OxygenLevelProvider.INSTANCE, LivingEntity.class, 1050);
+        registrar.body(PipeThroughputProvider.INSTANCE, PipeBlockEntity.class);
     }
 }
\ No newline at end of file
@@ -23,6 +23,8 @@
 package dev.galacticraft.mod.compat.waila;
 
 import dev.galacticraft.mod.compat.waila.config.Options;
+import dev.galacticraft.mod.compat.waila.provider.PipeThroughputProvider;
+import dev.galacticraft.mod.content.block.special.fluidpipe.PipeBlockEntity;
 import mcp.mobius.waila.api.ICommonRegistrar;
 import mcp.mobius.waila.api.IWailaCommonPlugin;
 
@@ -30,5 +32,7 @@ public class GalacticraftWailaCommonPlugin implements IWailaCommonPlugin {
     @Override
     public void register(ICommonRegistrar registrar) {
         registrar.featureConfig(Options.OXYGEN_LEVEL, true);
+        registrar.featureConfig(Options.PIPE_THROUGHPUT, true);
+        registrar.blockData(PipeThroughputProvider.INSTANCE, PipeBlockEntity.class);
     }
 }
\ No newline at end of file
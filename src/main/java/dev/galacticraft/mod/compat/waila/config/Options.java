@@ -27,4 +27,5 @@
 
 public final class Options {
     public static final ResourceLocation OXYGEN_LEVEL = Constant.id("oxygen_level.enabled");
+    public static final ResourceLocation PIPE_THROUGHPUT = Constant.id("pipe_throughput.enabled");
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.compat.waila.provider;
+
+import dev.galacticraft.mod.api.pipe.PipeNetwork;
+import dev.galacticraft.mod.compat.waila.config.Options;
+import dev.galacticraft.mod.content.block.special.fluidpipe.PipeBlockEntity;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import mcp.mobius.waila.api.IBlockAccessor;
+import mcp.mobius.waila.api.IBlockComponentProvider;
+import mcp.mobius.waila.api.IDataProvider;
+import mcp.mobius.waila.api.IDataWriter;
+import mcp.mobius.waila.api.IPluginConfig;
+import mcp.mobius.waila.api.IServerAccessor;
+import mcp.mobius.waila.api.ITooltip;
+import mcp.mobius.waila.api.WailaHelper;
+import mcp.mobius.waila.api.data.FluidData;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariantAttributes;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.material.Fluid;
+
+import static dev.galacticraft.mod.util.Translations.Waila.*;
+
+public enum PipeThroughputProvider implements IBlockComponentProvider, IDataProvider<PipeBlockEntity> {
+
+    INSTANCE;
+
+    private static final String THROUGHPUT = "galacticraft:pipe_throughput";
+
+    @Override
+    public void appendData(IDataWriter data, IServerAccessor<PipeBlockEntity> accessor, IPluginConfig config) {
+        if (!config.getBoolean(Options.PIPE_THROUGHPUT)) return;
+
+        PipeNetwork network = accessor.getTarget().getNetwork();
+        if (network == null || network.markedForRemoval()) return;
+
+        // Fluids are only told apart by their type, as that is all the tooltip shows
+        Object2LongOpenHashMap<Fluid> throughput = new Object2LongOpenHashMap<>();
+        for (Object2LongMap.Entry<FluidVariant> entry : network.getThroughput().object2LongEntrySet()) {
+            throughput.addTo(entry.getKey().getFluid(), entry.getLongValue());
+        }
+
+        CompoundTag tag = new CompoundTag();
+        for (Object2LongMap.Entry<Fluid> entry : throughput.object2LongEntrySet()) {
+            tag.putLong(BuiltInRegistries.FLUID.getKey(entry.getKey()).toString(), entry.getLongValue());
+        }
+        data.raw().put(THROUGHPUT, tag);
+    }
+
+    @Override
+    public void appendBody(ITooltip tooltip, IBlockAccessor accessor, IPluginConfig config) {
+        if (!config.getBoolean(Options.PIPE_THROUGHPUT)) return;
+
+        CompoundTag tag = accessor.getData().raw().getCompound(THROUGHPUT);
+        FluidData.Unit displayUnit = config.getEnum(FluidData.CONFIG_DISPLAY_UNIT);
+        for (String key : tag.getAllKeys()) {
+            Fluid fluid = BuiltInRegistries.FLUID.get(ResourceLocation.parse(key));
+            long amount = tag.getLong(key);
+            String text = WailaHelper.suffix((long) FluidData.Unit.convert(FluidData.Unit.DROPLETS, displayUnit, amount)) + " " + displayUnit.symbol;
+            tooltip.addLine(Component.translatable(PIPE_THROUGHPUT_LABEL, FluidVariantAttributes.getName(FluidVariant.of(fluid)), text));
+        }
+    }
+}
@@ -51,6 +51,7 @@ public class ConfigImpl implements Config {
     private boolean debugLog = false;
     private long wireMaxTransferPerTick = 128;
     private long heavyWireMaxTransferPerTick = 256;
+    private boolean batchedWireSettlement = false;
     private long machineEnergyStorageSize = 30_000;
     private long energyStorageModuleStorageSize = 300_000;
     private long coalGeneratorEnergyProductionRate = 120; // /t
@@ -66,6 +67,8 @@ public class ConfigImpl implements Config {
     private long oxygenSealerEnergyConsumptionRate = Constant.Energy.T1_MACHINE_ENERGY_USAGE;
     private long oxygenSealerOxygenConsumptionRate = 1000;
     private long maxSealingPower = 1024;
+    private boolean asyncSealing = false;
+    private boolean multiFluidPipes = false;
     private long refineryEnergyConsumptionRate = Constant.Energy.T2_MACHINE_ENERGY_USAGE;
     private long fuelLoaderEnergyConsumptionRate = Constant.Energy.T1_MACHINE_ENERGY_USAGE;
     private long foodCannerEnergyConsumptionRate = Constant.Energy.T1_MACHINE_ENERGY_USAGE;
@@ -127,6 +130,15 @@ public void setHeavyWireTransferLimit(long amount) {
         this.heavyWireMaxTransferPerTick = amount;
     }
 
+    @Override
+    public boolean batchedWireSettlement() {
+        return batchedWireSettlement;
+    }
+
+    public void setBatchedWireSettlement(boolean batchedWireSettlement) {
+        this.batchedWireSettlement = batchedWireSettlement;
+    }
+
     @Override
     public long machineEnergyStorageSize() {
         return machineEnergyStorageSize;
@@ -262,6 +274,24 @@ public void setMaxSealingPower(long amount) {
         this.maxSealingPower = amount;
     }
 
+    @Override
+    public boolean asyncSealing() {
+        return asyncSealing;
+    }
+
+    public void setAsyncSealing(boolean asyncSealing) {
+        this.asyncSealing = asyncSealing;
+    }
+
+    @Override
+    public boolean multiFluidPipes() {
+        return multiFluidPipes;
+    }
+
+    public void setMultiFluidPipes(boolean multiFluidPipes) {
+        this.multiFluidPipes = multiFluidPipes;
+    }
+
     @Override
     public long refineryEnergyConsumptionRate() {
         return refineryEnergyConsumptionRate;
@@ -449,6 +479,15 @@ public Screen create(Screen parent) {
                     .build()
             );
 
+            wires.add(new BooleanToggleBuilder(
+                    Component.translatable(Translations.Config.RESET),
+                    Component.translatable(Translations.Config.BATCHED_WIRE_SETTLEMENT),
+                    config.batchedWireSettlement())
+                    .setSaveConsumer(config::setBatchedWireSettlement)
+                    .setDefaultValue(false)
+                    .build()
+            );
+
             SubCategoryBuilder machines = ConfigEntryBuilder.create().startSubCategory(Component.translatable(Translations.Config.MACHINES));
 
             machines.add(new LongFieldBuilder(
@@ -591,6 +630,24 @@ public Screen create(Screen parent) {
                     .build()
             );
 
+            machines.add(new BooleanToggleBuilder(
+                    Component.translatable(Translations.Config.RESET),
+                    Component.translatable(Translations.Config.ASYNC_SEALING),
+                    config.asyncSealing())
+                    .setSaveConsumer(config::setAsyncSealing)
+                    .setDefaultValue(false)
+                    .build()
+            );
+
+            machines.add(new BooleanToggleBuilder(
+                    Component.translatable(Translations.Config.RESET),
+                    Component.translatable(Translations.Config.MULTI_FLUID_PIPES),
+                    config.multiFluidPipes())
+                    .setSaveConsumer(config::setMultiFluidPipes)
+                    .setDefaultValue(false)
+                    .build()
+            );
+
             machines.add(new LongFieldBuilder(
                     Component.translatable(Translations.Config.RESET),
                     Component.translatable(Translations.Config.REFINERY_ENERGY_CONSUMPTION_RATE),
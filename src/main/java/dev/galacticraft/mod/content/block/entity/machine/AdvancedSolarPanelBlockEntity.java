@@ -76,12 +76,7 @@ public boolean nightCollection() {
 
     @Override
     protected long calculateEnergyProduction(long time, double multiplier) {
-        double cos = Math.cos(this.level.getSunAngle(1.0f));
-        if (cos <= 0) return 0;
-        if (cos <= 0.26761643317033024) {
-            return (long) (Galacticraft.CONFIG.solarPanelEnergyProductionRate() * (cos / 0.26761643317033024) * multiplier);
-        }
-        return (long) (Galacticraft.CONFIG.solarPanelEnergyProductionRate() * multiplier);
+        return (long) (Galacticraft.CONFIG.solarPanelEnergyProductionRate() * this.solarState.getGenerationFactor(true) * multiplier);
     }
 
     @Override
@@ -76,9 +76,7 @@ public boolean nightCollection() {
 
     @Override
     protected long calculateEnergyProduction(long time, double multiplier) {
-        double cos = Math.cos(this.level.getSunAngle(1.0f));
-        if (cos <= 0) return 0;
-        return (long) (Galacticraft.CONFIG.solarPanelEnergyProductionRate() * cos * multiplier);
+        return (long) (Galacticraft.CONFIG.solarPanelEnergyProductionRate() * this.solarState.getGenerationFactor(false) * multiplier);
     }
 
     @Override
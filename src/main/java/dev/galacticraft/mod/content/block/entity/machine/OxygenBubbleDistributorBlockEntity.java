@@ -40,25 +40,23 @@
 import dev.galacticraft.mod.Galacticraft;
 import dev.galacticraft.mod.content.GCBlockEntityTypes;
 import dev.galacticraft.mod.machine.GCMachineStatuses;
-import dev.galacticraft.mod.network.s2c.BubbleSizePayload;
+import dev.galacticraft.mod.machine.OxygenSourceManager;
 import dev.galacticraft.mod.network.s2c.BubbleUpdatePayload;
 import dev.galacticraft.mod.screen.OxygenBubbleDistributorMenu;
 import dev.galacticraft.mod.util.FluidUtil;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
+import net.minecraft.core.SectionPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.util.Mth;
 import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.InventoryMenu;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -67,6 +65,9 @@ public class OxygenBubbleDistributorBlockEntity extends MachineBlockEntity {
     public static final int OXYGEN_INPUT_SLOT = 1; // REVIEW: should this be 0 or 1?
     public static final int OXYGEN_TANK = 0;
     public static final long MAX_OXYGEN = FluidUtil.bucketsToDroplets(50);
+    private static final double SIZE_EPSILON = 1.0E-4;
+    // Corrects the rounding errors of the clients' extrapolation while the bubble keeps changing
+    private static final int SIZE_RESYNC_INTERVAL = 20;
 
     private static final StorageSpec SPEC = StorageSpec.of(
             MachineItemStorage.spec(
@@ -97,21 +98,19 @@ public class OxygenBubbleDistributorBlockEntity extends MachineBlockEntity {
     private boolean bubbleVisible = true;
     private double size = 0;
     private byte targetSize = 1;
-    private int players = 0;
     private double prevSize;
+    // The last size sent to clients and how fast they were told it changes per tick
+    private double syncedSize;
+    private double syncedRate;
+    private long syncedTime;
     private boolean oxygenUnloaded = true;
-    private boolean oxygenWorld = true;
+    // The squared radius of the sphere that is currently added as an oxygen source, or -1 if there is none
+    private int appliedRadiusSquared = -1;
 
     public OxygenBubbleDistributorBlockEntity(BlockPos pos, BlockState state) {
         super(GCBlockEntityTypes.OXYGEN_BUBBLE_DISTRIBUTOR, pos, state, SPEC);
     }
 
-    @Override
-    public void setLevel(Level level) {
-        super.setLevel(level);
-        this.oxygenWorld = level.getDefaultBreathable();
-    }
-
     @Override
     protected void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @NotNull BlockState state, @NotNull ProfilerFiller profiler) {
         super.tickConstant(level, pos, state, profiler);
@@ -126,7 +125,6 @@ protected void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @
     protected @NotNull MachineStatus tick(@NotNull ServerLevel level, @NotNull BlockPos pos, @NotNull BlockState state, @NotNull ProfilerFiller profiler) {
         profiler.push("transaction");
         MachineStatus status;
-        this.distributeOxygenToArea(this.prevSize, this.oxygenWorld);
         try {
             if (this.energyStorage().canExtract(Galacticraft.CONFIG.oxygenCollectorEnergyConsumptionRate())) { //todo: config
                 profiler.push("bubble");
@@ -136,8 +134,6 @@ protected void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @
 
                 profiler.pop();
 
-                this.trySyncSize(level, pos, profiler);
-
                 profiler.push("bubbler_distributor_transfer");
                 long oxygenRequired = Math.max((long) ((4.0 / 3.0) * Math.PI * this.size * this.size * this.size), 1);
                 FluidResourceSlot slot = this.fluidStorage().slot(OXYGEN_TANK);
@@ -149,7 +145,8 @@ protected void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @
                         setSize(this.size + 0.05D);
                     }
                     profiler.pop();
-                    this.distributeOxygenToArea(this.size, true);
+                    this.distributeOxygenToArea(this.size);
+                    this.trySyncSize(level, pos, profiler);
                     return GCMachineStatuses.DISTRIBUTING;
                 } else {
                     status = GCMachineStatuses.NOT_ENOUGH_OXYGEN;
@@ -165,20 +162,20 @@ protected void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @
 
         if (this.size > 0) {
             this.setSize(this.size - 0.2D);
-            this.trySyncSize(level, pos, profiler);
-            this.distributeOxygenToArea(this.size, true); // technically this oxygen is being created from thin air
         }
 
         if (this.size < 0) {
             this.setSize(0);
         }
+        this.distributeOxygenToArea(this.size); // technically this oxygen is being created from thin air
+        this.trySyncSize(level, pos, profiler);
         profiler.pop();
         return status;
     }
 
     @Override
     protected void tickDisabled(@NotNull ServerLevel level, @NotNull BlockPos pos, @NotNull BlockState state, @NotNull ProfilerFiller profiler) {
-        this.distributeOxygenToArea(this.prevSize, this.oxygenWorld); // REVIEW: Inefficient?
+        this.distributeOxygenToArea(0);
         this.trySyncSize(level, pos, profiler);
 
         super.tickDisabled(level, pos, state, profiler);
@@ -188,21 +185,26 @@ protected void tickDisabled(@NotNull ServerLevel level, @NotNull BlockPos pos, @
     public void setRemoved() {
         if (!this.oxygenUnloaded) {
             this.oxygenUnloaded = true;
-            this.distributeOxygenToArea(this.size, this.oxygenWorld);
+            this.distributeOxygenToArea(0);
         }
         super.setRemoved();
     }
 
     private void trySyncSize(@NotNull ServerLevel level, @NotNull BlockPos pos, @NotNull ProfilerFiller profiler) {
-        // Could maybe get away with running this 1 in 10 ticks to reduce network traffic
-        if (this.prevSize != this.size || this.players != level.players().size()) {
-            this.players = level.players().size();
-            this.prevSize = this.size;
+        long time = level.getGameTime();
+        double rate = this.size - this.prevSize;
+        this.prevSize = this.size;
+
+        // Clients extrapolate the size from the last update, so only send one when they would get it wrong
+        double predicted = Math.max(this.syncedSize + this.syncedRate * (time - this.syncedTime), 0);
+        if (Math.abs(rate - this.syncedRate) > SIZE_EPSILON
+                || Math.abs(predicted - this.size) > SIZE_EPSILON
+                || (rate != 0 && time - this.syncedTime >= SIZE_RESYNC_INTERVAL)) {
+            this.syncedSize = this.size;
+            this.syncedRate = rate;
+            this.syncedTime = time;
             profiler.push("network");
-            for (ServerPlayer player : level.players()) {
-                if (this.size < 0) this.size = 0;
-                ServerPlayNetworking.send(player, new BubbleSizePayload(pos, this.size));
-            }
+            level.galacticraft$getBubbleSizeSyncer().queue(pos, this.size, rate);
             profiler.pop();
         }
     }
@@ -214,21 +216,64 @@ public int getDistanceFromServer(int par1, int par3, int par5) {
         return d3 * d3 + d4 * d4 + d5 * d5;
     }
 
-    public void distributeOxygenToArea(double size, boolean oxygenated) {
-        int radius = Mth.floor(size) + 4;
-        int bubbleR2 = (int) (size * size);
-        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
-        for (int x = this.getBlockPos().getX() - radius; x <= this.getBlockPos().getX() + radius; x++) {
-            for (int y = this.getBlockPos().getY() - radius; y <= this.getBlockPos().getY() + radius; y++) {
-                for (int z = this.getBlockPos().getZ() - radius; z <= this.getBlockPos().getZ() + radius; z++) {
-                    if (this.getDistanceFromServer(x, y, z) <= bubbleR2) {
-                        this.level.setBreathable(pos.set(x, y, z), oxygenated);
-                    }
+    /**
+     * Resizes the sphere of blocks this distributor provides oxygen to.
+     * Only the blocks between the previous and the new radius are added or removed as oxygen sources.
+     *
+     * @param size the radius of the bubble, or {@code 0} to remove the bubble
+     */
+    public void distributeOxygenToArea(double size) {
+        int bubbleR2 = size > 0 ? (int) (size * size) : -1;
+        int prevR2 = this.appliedRadiusSquared;
+        if (bubbleR2 == prevR2) return;
+        this.appliedRadiusSquared = bubbleR2;
+
+        boolean growing = bubbleR2 > prevR2;
+        int innerR2 = Math.min(bubbleR2, prevR2);
+        int outerR2 = Math.max(bubbleR2, prevR2);
+        int radius = maxOffset(outerR2);
+        BlockPos center = this.getBlockPos();
+        OxygenSourceManager sources = this.level.galacticraft$getOxygenSourceManager();
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                int horizontal = dx * dx + dz * dz;
+                if (horizontal > outerR2) continue;
+
+                // Each column of the shell is at most two vertical runs, above and below the inner sphere
+                int outer = maxOffset(outerR2 - horizontal);
+                int inner = innerR2 >= horizontal ? maxOffset(innerR2 - horizontal) : -1;
+                int x = center.getX() + dx;
+                int z = center.getZ() + dz;
+                LevelChunk chunk = this.level.getChunk(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z));
+                if (inner < 0) {
+                    this.updateSources(sources, chunk, x, center.getY() - outer, center.getY() + outer, z, growing);
+                } else {
+                    this.updateSources(sources, chunk, x, center.getY() - outer, center.getY() - inner - 1, z, growing);
+                    this.updateSources(sources, chunk, x, center.getY() + inner + 1, center.getY() + outer, z, growing);
                 }
             }
         }
     }
 
+    private void updateSources(OxygenSourceManager sources, LevelChunk chunk, int x, int minY, int maxY, int z, boolean add) {
+        if (minY > maxY) return;
+        if (add) {
+            sources.addSources(chunk, x, minY, maxY, z);
+        } else {
+            sources.removeSources(chunk, x, minY, maxY, z);
+        }
+    }
+
+    /**
+     * Returns the largest offset whose square is at most the given squared distance.
+     */
+    private static int maxOffset(int distanceSquared) {
+        int offset = (int) Math.sqrt(distanceSquared);
+        while (offset * offset > distanceSquared) offset--;
+        while ((offset + 1) * (offset + 1) <= distanceSquared) offset++;
+        return offset;
+    }
+
     public byte getTargetSize() {
         return this.targetSize;
     }
@@ -250,6 +295,7 @@ public void loadAdditional(CompoundTag tag, HolderLookup.Provider lookup) {
         super.loadAdditional(tag, lookup);
         this.size = tag.getDouble(Constant.Nbt.SIZE);
         if (this.size < 0) this.size = 0;
+        this.prevSize = this.size;
         this.targetSize = tag.getByte(Constant.Nbt.MAX_SIZE);
         if (this.targetSize < 1) this.targetSize = 1;
         this.bubbleVisible = tag.getBoolean(Constant.Nbt.VISIBLE);
@@ -263,6 +309,31 @@ public void setSize(double size) {
         this.size = size;
     }
 
+    /**
+     * Sets the size of the bubble on the client, along with how fast it is changing.
+     *
+     * @param size the size of the bubble
+     * @param rate the change of the size per tick
+     */
+    public void setSyncedSize(double size, double rate) {
+        this.size = size;
+        this.syncedSize = size;
+        this.syncedRate = rate;
+        this.syncedTime = this.level.getGameTime();
+    }
+
+    /**
+     * Returns the size of the bubble on the client, extrapolated from the last update.
+     *
+     * @param tickDelta the progress of the current tick
+     * @return the size to render the bubble at
+     */
+    public double getRenderSize(float tickDelta) {
+        if (this.syncedRate == 0) return this.size;
+        double size = this.syncedSize + this.syncedRate * (this.level.getGameTime() - this.syncedTime + tickDelta);
+        return this.syncedRate > 0 ? Math.min(size, Math.max(this.targetSize, this.syncedSize)) : Math.max(size, 0);
+    }
+
     public boolean isBubbleVisible() {
         return this.size < 0.0D || this.bubbleVisible;
     }
@@ -116,6 +116,30 @@ protected void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @
 
     @Override
     protected @NotNull MachineStatus tick(@NotNull ServerLevel level, @NotNull BlockPos pos, @NotNull BlockState state, @NotNull ProfilerFiller profiler) {
+        boolean couldSeal = this.canSeal();
+        MachineStatus status = this.checkRequirements(level, pos);
+        if (couldSeal != this.canSeal()) {
+            // Let the sealer manager recalculate the sealed space
+            level.galacticraft$getSealerManager().onSealerChanged(this);
+        }
+        if (status != null) {
+            return status;
+        }
+
+        if (this.hasEnergy) {
+            this.consumeEnergy();
+        }
+
+        if (this.isSealed) {
+            // Consume oxygen if sealed
+            this.consumeOxygen();
+            return GCMachineStatuses.SEALED;
+        } else {
+            return GCMachineStatuses.AREA_TOO_LARGE;
+        }
+    }
+
+    private @Nullable MachineStatus checkRequirements(@NotNull ServerLevel level, @NotNull BlockPos pos) {
         // Check if the machine has enough energy
         if (!this.energyStorage().canExtract(Galacticraft.CONFIG.oxygenSealerEnergyConsumptionRate())) {
             this.hasEnergy = false;
@@ -135,18 +159,7 @@ protected void tickConstant(@NotNull ServerLevel level, @NotNull BlockPos pos, @
             return GCMachineStatuses.BLOCKED;
         }
         this.blocked = false;
-
-        if (this.hasEnergy) {
-            this.consumeEnergy();
-        }
-
-        if (this.isSealed) {
-            // Consume oxygen if sealed
-            this.consumeOxygen();
-            return GCMachineStatuses.SEALED;
-        } else {
-            return GCMachineStatuses.AREA_TOO_LARGE;
-        }
+        return null;
     }
 
     @Override
@@ -196,6 +209,10 @@ public boolean isBlocked() {
         return this.blocked;
     }
 
+    public boolean canSeal() {
+        return this.hasEnergy && this.hasOxygen && !this.blocked;
+    }
+
     public int getSealTickTime() {
         if (this.level == null) return 0;
         return SEAL_CHECK_TIME - (int) (this.level.getGameTime() % SEAL_CHECK_TIME);
@@ -73,6 +73,16 @@ public void createNetwork() {
         }
     }
 
+    /**
+     * Gets a network again for this block if it does not have one, restoring it from the saved networks when possible.
+     */
+    private void restoreNetwork() {
+        assert this.network == null || this.network.markedForRemoval();
+        if (!this.level.isClientSide) {
+            this.network = WireNetworkImpl.restoreOrCreate((ServerLevel) this.level, this.maxTransferRate, this.getBlockPos());
+        }
+    }
+
     @Override
     public void setNetwork(@Nullable WireNetwork network) {
         if ((this.network == null || this.network.markedForRemoval()) && (network != null && !network.markedForRemoval())) {
@@ -92,7 +102,7 @@ public WireNetwork getNetwork() {
     @Override
     public EnergyStorage getInsertable() {
         if (this.network == null || this.network.markedForRemoval()) {
-            this.createNetwork();
+            this.restoreNetwork();
         }
         return this;
     }
@@ -110,7 +120,7 @@ public boolean[] getConnections() {
     @Override
     public void updateConnection(BlockState state, BlockPos pos, BlockPos neighborPos, Direction direction) {
         if (this.network == null || this.network.markedForRemoval()) {
-            this.createNetwork();
+            this.restoreNetwork();
         }
         if (this.network != null) {
             this.network.updateConnection(pos, neighborPos, direction);
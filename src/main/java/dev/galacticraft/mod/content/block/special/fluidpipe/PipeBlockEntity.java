@@ -68,6 +68,16 @@ private void createNetwork() {
         }
     }
 
+    /**
+     * Gets a network again for this block if it does not have one, restoring it from the saved networks when possible.
+     */
+    private void restoreNetwork() {
+        assert this.network == null || this.network.markedForRemoval();
+        if (!this.level.isClientSide) {
+            this.network = PipeNetworkImpl.restoreOrCreate((ServerLevel) this.level, this.maxTransferRate, this.getBlockPos());
+        }
+    }
+
     @Override
     public void setNetwork(@Nullable PipeNetwork network) {
         if ((this.network == null || this.network.markedForRemoval()) && (network != null && !network.markedForRemoval())) {
@@ -86,7 +96,7 @@ public void setNetwork(@Nullable PipeNetwork network) {
     @Override
     public Storage<FluidVariant> getInsertable() {
         if (this.network == null || this.network.markedForRemoval()) {
-            this.createNetwork();
+            this.restoreNetwork();
         }
         return this;
     }
@@ -104,7 +114,7 @@ public boolean[] getConnections() {
     @Override
     public void updateConnection(BlockState state, BlockPos pos, BlockPos neighborPos, Direction direction) {
         if (this.network == null || this.network.markedForRemoval()) {
-            this.createNetwork();
+            this.restoreNetwork();
         }
         if (this.network != null) {
             this.network.updateConnection(pos, neighborPos, direction);
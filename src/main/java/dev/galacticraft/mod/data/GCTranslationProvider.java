@@ -850,6 +850,11 @@ protected void generateChatTranslations() {
         this.add(RegistryDebug.DUMP, "Dumped: %s");
         this.add(RegistryDebug.ID, "%s - %s: %s");
 
+        this.add(OxygenSyncDebug.STATS, "Sent %s oxygen updates in %s bytes, with %s full sections and %s delta sections");
+
+        this.add(SealingDebug.HEADER, "Found %s sealer spaces in %s");
+        this.add(SealingDebug.SPACE, "Space of sealer at %s: %s blocks, %s sealers, %s merges, sealed: %s");
+
         this.add(SetOxygen.SUCCESS_MULTIPLE, "Set oxygen at blocks");
         this.add(SetOxygen.SUCCESS_SINGLE, "Set oxygen at block");
         this.add(SetOxygen.OXYGEN_EXISTS, "Oxygen exists at block");
@@ -955,6 +960,7 @@ protected void generateConfigTranslations() {
         this.add(Config.WIRES, "Wires");
         this.add(Config.WIRE_ENERGY_TRANSFER_LIMIT, "Wire Transfer Limit/t");
         this.add(Config.HEAVY_WIRE_ENERGY_TRANSFER_LIMIT, "Heavy Wire Transfer Limit/t");
+        this.add(Config.BATCHED_WIRE_SETTLEMENT, "Settle Wire Energy Once Per Tick");
 
         this.add(Config.MACHINES, "Machines");
         this.add(Config.ENERGY_STORAGE_SIZE, "Default Machine Energy Storage Size");
@@ -972,6 +978,8 @@ protected void generateConfigTranslations() {
         this.add(Config.OXYGEN_SEALER_ENERGY_CONSUMPTION_RATE, "Oxygen Sealer Energy Consumption Rate/t");
         this.add(Config.OXYGEN_SEALER_OXYGEN_CONSUMPTION_RATE, "Oxygen Sealer Oxygen Consumption Rate/t");
         this.add(Config.MAX_SEALING_POWER, "Maximum Sealing Power");
+        this.add(Config.ASYNC_SEALING, "Flood Sealed Spaces Asynchronously");
+        this.add(Config.MULTI_FLUID_PIPES, "Share Pipes Between Fluids");
         this.add(Config.REFINERY_ENERGY_CONSUMPTION_RATE, "Refinery Energy Consumption Rate/t");
         this.add(Config.FUEL_LOADER_ENERGY_CONSUMPTION_RATE, "Fuel Loader Energy Consumption Rate/t");
         this.add(Config.FOOD_CANNER_ENERGY_CONSUMPTION_RATE, "Food Canner Energy Consumption Rate/t");
@@ -1146,6 +1154,8 @@ protected void generateWailaTranslations() {
         this.add(Waila.PLUGIN_GALACTICRAFT, "Galacticraft");
         this.add(Waila.SHOW_OXYGEN_LEVEL, "Show Oxygen Tank Levels");
         this.add(Waila.OXYGEN_TANK_LABEL, "O₂ Tank %s");
+        this.add(Waila.SHOW_PIPE_THROUGHPUT, "Show Pipe Throughput");
+        this.add(Waila.PIPE_THROUGHPUT_LABEL, "%s: %s/t");
     }
 
     protected void generateStatsTranslations() {
@@ -25,10 +25,16 @@
 import dev.galacticraft.api.universe.celestialbody.CelestialBody;
 import dev.galacticraft.api.universe.celestialbody.landable.Landable;
 import dev.galacticraft.api.universe.celestialbody.landable.teleporter.CelestialTeleporter;
+import dev.galacticraft.mod.machine.ConductorTopology;
 import dev.galacticraft.mod.misc.footprint.FootprintManager;
 import dev.galacticraft.mod.network.s2c.FootprintRemovedPacket;
 import dev.galacticraft.mod.util.Translations;
+import dev.galacticraft.mod.world.gen.custom.AsteroidChunkGenerator;
+import dev.galacticraft.mod.world.gen.custom.AsteroidSaveData;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.core.GlobalPos;
@@ -43,6 +49,20 @@ public static void init() {
         GCSleepEventHandlers.init();
         GCInteractionEventHandlers.init();
         ServerTickEvents.END_WORLD_TICK.register(GCEventHandlers::onWorldTick);
+        ServerChunkEvents.CHUNK_LOAD.register((level, chunk) -> ConductorTopology.onChunkLoad(level, chunk.getPos()));
+        ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) -> ConductorTopology.onChunkUnload(level, chunk.getPos()));
+        ServerWorldEvents.LOAD.register((server, level) -> {
+            if (level.getChunkSource().getGenerator() instanceof AsteroidChunkGenerator generator) {
+                generator.setSaveData(AsteroidSaveData.get(level));
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            for (ServerLevel level : server.getAllLevels()) {
+                if (level.getChunkSource().getGenerator() instanceof AsteroidChunkGenerator) {
+                    AsteroidSaveData.get(level).awaitPendingWrite();
+                }
+            }
+        });
     }
 
     public static void onPlayerChangePlanets(MinecraftServer server, ServerPlayer player, CelestialBody<?, ?> body, CelestialBody<?, ?> fromBody) {
@@ -69,5 +89,8 @@ public static void onWorldTick(ServerLevel level) {
             footprintManager.footprintBlockChanges.clear();
         }
         level.galacticraft$getSealerManager().tick();
+        level.galacticraft$getBubbleSizeSyncer().flush(level);
+        level.galacticraft$getWireNetworkSettler().settle();
+        ConductorTopology.tick(level);
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import dev.galacticraft.mod.network.s2c.BubbleSizePayload;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the bubble size changes of a level during a tick, so that the changes of all distributors in a chunk
+ * are sent to the players tracking that chunk in a single payload.
+ */
+public class BubbleSizeSyncer {
+    private final Long2ObjectMap<List<BubbleSizePayload.Entry>> pending = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Queues a size change to be sent at the end of the tick.
+     *
+     * @param pos the position of the distributor
+     * @param size the new size of the bubble
+     * @param rate the change of the size per tick
+     */
+    public void queue(BlockPos pos, double size, double rate) {
+        this.pending.computeIfAbsent(ChunkPos.asLong(pos), k -> new ArrayList<>()).add(new BubbleSizePayload.Entry(pos.immutable(), size, rate));
+    }
+
+    public void flush(ServerLevel level) {
+        if (this.pending.isEmpty()) return;
+        for (Long2ObjectMap.Entry<List<BubbleSizePayload.Entry>> entry : Long2ObjectMaps.fastIterable(this.pending)) {
+            BubbleSizePayload payload = new BubbleSizePayload(entry.getValue());
+            for (ServerPlayer player : PlayerLookup.tracking(level, new ChunkPos(entry.getLongKey()))) {
+                ServerPlayNetworking.send(player, payload);
+            }
+        }
+        this.pending.clear();
+    }
+}
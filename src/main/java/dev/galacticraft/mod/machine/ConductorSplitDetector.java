@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import dev.galacticraft.mod.Constant;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds out whether removing a conductor split its network, without walking the whole network again.
+ * A breadth first search is started from every neighbour of the removed conductor, and the searches take turns.
+ * Searches that meet belong to the same fragment. A fragment whose searches all run out before the others are done
+ * has been cut off, and as soon as only one fragment is left the remaining conductors are known to still be connected.
+ * This means that closing a gap in a loop only visits the conductors between the neighbours,
+ * and a split only visits the smaller fragments completely.
+ */
+@ApiStatus.Internal
+public final class ConductorSplitDetector {
+    private ConductorSplitDetector() {
+    }
+
+    /**
+     * @param seeds the packed positions of the conductors that were connected to the removed conductor
+     * @param links whether two adjacent conductors of the network are connected to each other
+     * @return the fragments that were cut off from the rest of the network, the last remaining fragment is not included
+     */
+    public static List<LongArrayList> findFragments(LongArrayList seeds, Links links) {
+        int count = seeds.size();
+        int[] parent = new int[count];
+        LongArrayFIFOQueue[] queues = new LongArrayFIFOQueue[count];
+        LongArrayList[] visited = new LongArrayList[count];
+        Long2IntOpenHashMap owners = new Long2IntOpenHashMap();
+        owners.defaultReturnValue(-1);
+
+        int groups = 0;
+        for (int i = 0; i < count; i++) {
+            long seed = seeds.getLong(i);
+            parent[i] = i;
+            queues[i] = new LongArrayFIFOQueue();
+            visited[i] = new LongArrayList();
+            int owner = owners.putIfAbsent(seed, i);
+            if (owner == -1) {
+                queues[i].enqueue(seed);
+                visited[i].add(seed);
+                groups++;
+            } else {
+                parent[i] = find(parent, owner);
+            }
+        }
+
+        List<LongArrayList> fragments = new ArrayList<>();
+        boolean[] done = new boolean[count];
+        while (groups > 1) {
+            for (int i = 0; i < count && groups > 1; i++) {
+                if (queues[i].isEmpty()) continue;
+                long pos = queues[i].dequeueLong();
+                for (Direction direction : Constant.Misc.DIRECTIONS) {
+                    long adjacent = BlockPos.offset(pos, direction);
+                    int owner = owners.get(adjacent);
+                    if (owner == i) continue;
+                    if (owner == -1) {
+                        if (links.isLinked(pos, direction, adjacent)) {
+                            owners.put(adjacent, i);
+                            visited[i].add(adjacent);
+                            queues[i].enqueue(adjacent);
+                        }
+                    } else {
+                        int a = find(parent, i);
+                        int b = find(parent, owner);
+                        if (a != b && links.isLinked(pos, direction, adjacent)) {
+                            parent[b] = a;
+                            groups--;
+                        }
+                    }
+                }
+            }
+
+            // A fragment that has been searched completely without meeting the others is cut off
+            for (int root = 0; root < count && groups > 1; root++) {
+                if (parent[root] != root || done[root]) continue;
+                boolean exhausted = true;
+                for (int i = 0; i < count; i++) {
+                    if (!queues[i].isEmpty() && find(parent, i) == root) {
+                        exhausted = false;
+                        break;
+                    }
+                }
+                if (exhausted) {
+                    LongArrayList fragment = new LongArrayList();
+                    for (int i = 0; i < count; i++) {
+                        if (find(parent, i) == root) fragment.addAll(visited[i]);
+                    }
+                    fragments.add(fragment);
+                    done[root] = true;
+                    groups--;
+                }
+            }
+        }
+        return fragments;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    @FunctionalInterface
+    public interface Links {
+        /**
+         * @param from the packed position of a conductor of the network
+         * @param direction the direction from the conductor to the other conductor
+         * @param to the packed position of the adjacent conductor
+         * @return whether the other conductor is part of the network and connected to the first one
+         */
+        boolean isLinked(long from, Direction direction, long to);
+    }
+}
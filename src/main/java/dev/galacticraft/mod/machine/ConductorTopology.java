@@ -0,0 +1,457 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.api.pipe.impl.PipeNetworkImpl;
+import dev.galacticraft.mod.api.wire.impl.WireNetworkImpl;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.ByteArrayTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.saveddata.SavedData;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Saves which wires or pipes of a level belong to the same network, and which of their faces are connected to a storage.
+ * The networks themselves only exist in memory. When a conductor needs its network again after a restart or a chunk reload,
+ * the network is restored from its saved members instead of walking every conductor connected to it.
+ * Restored conductors only check their direct neighbours against the saved network, so conductors that are removed while
+ * their network is not alive are taken out of the saved network straight away, see {@link #conductorRemoved(long)}.
+ * <p>
+ * The members of a network are grouped into segments, one per chunk. When a chunk unloads, the conductors of the network
+ * let go of the storages in that chunk, and a network without any loaded segment is only kept as saved data.
+ * Loading the chunk again reattaches its storages and conductors without walking the rest of the network.
+ */
+@ApiStatus.Internal
+public class ConductorTopology<N extends ConductorTopology.Network> extends SavedData {
+    public static final int NO_NETWORK = -1;
+    private static final String WIRES = Constant.MOD_ID + "_wire_networks";
+    private static final String PIPES = Constant.MOD_ID + "_pipe_networks";
+    private static final SavedData.Factory<ConductorTopology<WireNetworkImpl>> WIRE_FACTORY = new SavedData.Factory<ConductorTopology<WireNetworkImpl>>(ConductorTopology::new, ConductorTopology::load, null);
+    private static final SavedData.Factory<ConductorTopology<PipeNetworkImpl>> PIPE_FACTORY = new SavedData.Factory<ConductorTopology<PipeNetworkImpl>>(ConductorTopology::new, ConductorTopology::load, null);
+
+    private final Long2IntOpenHashMap networkIds = new Long2IntOpenHashMap();
+    private final Int2ObjectOpenHashMap<Entry> entries = new Int2ObjectOpenHashMap<>();
+    // The faces of each conductor that are connected to a storage
+    private final Long2ByteOpenHashMap endpoints = new Long2ByteOpenHashMap();
+    // The conductors connected to a storage, by the chunk of the storage, so that a chunk only has to look at its own storages when it loads
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> endpointsByChunk = new Long2ObjectOpenHashMap<>();
+    // The networks that have a segment in each chunk
+    private final Long2ObjectOpenHashMap<IntOpenHashSet> segmentsByChunk = new Long2ObjectOpenHashMap<>();
+    private final Int2ObjectOpenHashMap<N> networks = new Int2ObjectOpenHashMap<>();
+    private final LongArrayList loadedChunks = new LongArrayList();
+    private int nextId = 0;
+
+    public ConductorTopology() {
+        this.networkIds.defaultReturnValue(NO_NETWORK);
+    }
+
+    public static ConductorTopology<WireNetworkImpl> wires(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(WIRE_FACTORY, WIRES);
+    }
+
+    public static ConductorTopology<PipeNetworkImpl> pipes(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(PIPE_FACTORY, PIPES);
+    }
+
+    public static void onChunkLoad(ServerLevel level, ChunkPos pos) {
+        wires(level).chunkLoaded(pos);
+        pipes(level).chunkLoaded(pos);
+    }
+
+    public static void onChunkUnload(ServerLevel level, ChunkPos pos) {
+        wires(level).chunkUnloaded(level, pos);
+        pipes(level).chunkUnloaded(level, pos);
+    }
+
+    public static void tick(ServerLevel level) {
+        wires(level).restoreLoadedEndpoints();
+        pipes(level).restoreLoadedEndpoints();
+    }
+
+    /**
+     * Returns the id of the saved network that a conductor belongs to.
+     *
+     * @param pos the packed position of the conductor
+     * @return the id of the network, or {@link #NO_NETWORK} if the conductor is not part of a saved network
+     */
+    public int getNetworkId(long pos) {
+        return this.networkIds.get(pos);
+    }
+
+    public long getMaxTransferRate(int id) {
+        Entry entry = this.entries.get(id);
+        return entry == null ? -1 : entry.maxTransferRate;
+    }
+
+    public @NotNull LongSet getMembers(int id) {
+        Entry entry = this.entries.get(id);
+        return entry == null ? LongSets.EMPTY_SET : LongSets.unmodifiable(entry.members);
+    }
+
+    public byte getEndpoints(long pos) {
+        return this.endpoints.get(pos);
+    }
+
+    /**
+     * Returns the network with the given id if it has been created or restored since the level was loaded.
+     */
+    public @Nullable N getNetwork(int id) {
+        return this.networks.get(id);
+    }
+
+    /**
+     * Saves a new network without any members.
+     *
+     * @return the id of the new network
+     */
+    public int create(@NotNull N network, long maxTransferRate) {
+        int id = this.nextId++;
+        this.entries.put(id, new Entry(maxTransferRate));
+        this.networks.put(id, network);
+        this.setDirty();
+        return id;
+    }
+
+    /**
+     * Makes a network that was restored from its saved members the live network for its id.
+     */
+    public void restore(int id, @NotNull N network) {
+        this.networks.put(id, network);
+    }
+
+    /**
+     * Moves a conductor to a network. Its endpoints are cleared, as they are looked up again when a conductor joins a network.
+     */
+    public void add(int id, long pos) {
+        if (this.move(id, pos)) {
+            this.setEndpoints(pos, (byte) 0);
+        }
+    }
+
+    /**
+     * Moves a conductor to a network, keeping its endpoints.
+     *
+     * @return whether the conductor was moved, which is not the case if the network has been dissolved
+     */
+    public boolean move(int id, long pos) {
+        Entry entry = this.entries.get(id);
+        if (entry == null) return false;
+
+        int previous = this.networkIds.put(pos, id);
+        if (previous != id) {
+            if (previous != NO_NETWORK) this.removeMember(previous, pos);
+            this.addMember(id, entry, pos);
+            this.setDirty();
+        }
+        return true;
+    }
+
+    public void remove(long pos) {
+        int id = this.networkIds.remove(pos);
+        if (id != NO_NETWORK) this.removeMember(id, pos);
+        this.setEndpoints(pos, (byte) 0);
+        this.setDirty();
+    }
+
+    /**
+     * Forgets a network that has been marked for removal. Its conductors will be walked again the next time they need a network.
+     */
+    public void dissolve(int id, @NotNull N network) {
+        if (this.networks.get(id) != network) return;
+        this.networks.remove(id);
+        this.forget(id);
+    }
+
+    /**
+     * Called when the block of a conductor is removed.
+     * A live network removes the conductor itself once the neighbouring conductors are updated, but a saved network would keep it
+     * as a member and could later be restored across the gap. If the conductor may have been connecting other members of the
+     * saved network, the whole network is forgotten, so that its conductors are walked again the next time they need a network.
+     *
+     * @param pos the packed position of the conductor
+     */
+    public void conductorRemoved(long pos) {
+        int id = this.networkIds.get(pos);
+        if (id == NO_NETWORK || this.networks.containsKey(id)) return;
+
+        int neighbours = 0;
+        for (Direction direction : Constant.Misc.DIRECTIONS) {
+            if (this.networkIds.get(BlockPos.offset(pos, direction)) == id) neighbours++;
+        }
+        if (neighbours <= 1) {
+            // The end of a line can't cut the rest of the network in two
+            this.remove(pos);
+        } else {
+            this.forget(id);
+        }
+    }
+
+    private void forget(int id) {
+        Entry entry = this.entries.remove(id);
+        if (entry == null) return;
+
+        for (long chunk : entry.segments.keySet()) {
+            this.removeSegment(chunk, id);
+        }
+
+        LongIterator iterator = entry.members.iterator();
+        while (iterator.hasNext()) {
+            long pos = iterator.nextLong();
+            if (this.networkIds.get(pos) == id) {
+                this.networkIds.remove(pos);
+                this.setEndpoints(pos, (byte) 0);
+            }
+        }
+        this.setDirty();
+    }
+
+    public void setEndpoint(long pos, @NotNull Direction direction, boolean connected) {
+        if (this.networkIds.get(pos) == NO_NETWORK) return;
+        byte faces = this.endpoints.get(pos);
+        int face = 1 << direction.get3DDataValue();
+        this.setEndpoints(pos, (byte) (connected ? faces | face : faces & ~face));
+    }
+
+    private void setEndpoints(long pos, byte faces) {
+        byte previous = faces == 0 ? this.endpoints.remove(pos) : this.endpoints.put(pos, faces);
+        if (previous == faces) return;
+        this.index(pos, previous, false);
+        this.index(pos, faces, true);
+        this.setDirty();
+    }
+
+    private void index(long pos, byte faces, boolean add) {
+        if (faces == 0) return;
+        for (Direction direction : Constant.Misc.DIRECTIONS) {
+            if ((faces & (1 << direction.get3DDataValue())) == 0) continue;
+            long chunk = ChunkPos.asLong(
+                    SectionPos.blockToSectionCoord(BlockPos.getX(pos) + direction.getStepX()),
+                    SectionPos.blockToSectionCoord(BlockPos.getZ(pos) + direction.getStepZ())
+            );
+            if (add) {
+                this.endpointsByChunk.computeIfAbsent(chunk, k -> new LongOpenHashSet()).add(pos);
+            } else {
+                LongOpenHashSet conductors = this.endpointsByChunk.get(chunk);
+                if (conductors != null && conductors.remove(pos) && conductors.isEmpty()) {
+                    this.endpointsByChunk.remove(chunk);
+                }
+            }
+        }
+    }
+
+    private void addMember(int id, Entry entry, long pos) {
+        if (entry.members.add(pos)) {
+            long chunk = chunkOf(pos);
+            if (entry.segments.addTo(chunk, 1) == 0) {
+                this.segmentsByChunk.computeIfAbsent(chunk, k -> new IntOpenHashSet()).add(id);
+            }
+        }
+    }
+
+    private void removeMember(int id, long pos) {
+        Entry entry = this.entries.get(id);
+        if (entry != null && entry.members.remove(pos)) {
+            long chunk = chunkOf(pos);
+            if (entry.segments.addTo(chunk, -1) == 1) {
+                entry.segments.remove(chunk);
+                this.removeSegment(chunk, id);
+            }
+            if (entry.members.isEmpty()) {
+                this.entries.remove(id);
+                this.networks.remove(id);
+            }
+        }
+    }
+
+    private void removeSegment(long chunk, int id) {
+        IntOpenHashSet ids = this.segmentsByChunk.get(chunk);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            this.segmentsByChunk.remove(chunk);
+        }
+    }
+
+    private static long chunkOf(long pos) {
+        return ChunkPos.asLong(SectionPos.blockToSectionCoord(BlockPos.getX(pos)), SectionPos.blockToSectionCoord(BlockPos.getZ(pos)));
+    }
+
+    private void chunkUnloaded(ServerLevel level, ChunkPos pos) {
+        long chunk = pos.toLong();
+        this.loadedChunks.rem(chunk);
+
+        LongOpenHashSet conductors = this.endpointsByChunk.get(chunk);
+        if (conductors != null) {
+            LongIterator iterator = conductors.iterator();
+            while (iterator.hasNext()) {
+                long conductor = iterator.nextLong();
+                N network = this.networks.get(this.networkIds.get(conductor));
+                if (network != null) network.releaseEndpoints(BlockPos.of(conductor), pos);
+            }
+        }
+
+        IntOpenHashSet ids = this.segmentsByChunk.get(chunk);
+        if (ids != null) {
+            for (int id : ids.toIntArray()) {
+                Entry entry = this.entries.get(id);
+                if (entry != null && this.networks.containsKey(id) && !hasLoadedSegment(level, entry, chunk)) {
+                    this.networks.remove(id);
+                }
+            }
+        }
+    }
+
+    private static boolean hasLoadedSegment(ServerLevel level, Entry entry, long unloading) {
+        LongIterator iterator = entry.segments.keySet().iterator();
+        while (iterator.hasNext()) {
+            long chunk = iterator.nextLong();
+            if (chunk != unloading && level.getChunkSource().hasChunk(ChunkPos.getX(chunk), ChunkPos.getZ(chunk))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void chunkLoaded(ChunkPos pos) {
+        if (this.endpointsByChunk.containsKey(pos.toLong())) {
+            this.loadedChunks.add(pos.toLong());
+        }
+    }
+
+    /**
+     * Looks up the storages in chunks that loaded since the last tick for the networks that are alive.
+     * Networks that have not been restored yet look up their storages when they are restored.
+     * This is done on the next tick, as the chunk is not fully available while it is loading.
+     */
+    private void restoreLoadedEndpoints() {
+        if (this.loadedChunks.isEmpty()) return;
+        for (int i = 0; i < this.loadedChunks.size(); i++) {
+            LongOpenHashSet conductors = this.endpointsByChunk.get(this.loadedChunks.getLong(i));
+            if (conductors == null) continue;
+            for (long pos : conductors.toLongArray()) {
+                N network = this.networks.get(this.networkIds.get(pos));
+                if (network != null && !network.markedForRemoval()) {
+                    network.restoreEndpoints(BlockPos.of(pos), this.endpoints.get(pos));
+                }
+            }
+        }
+        this.loadedChunks.clear();
+    }
+
+    public static <N extends Network> ConductorTopology<N> load(CompoundTag nbt, HolderLookup.Provider registryLookup) {
+        ConductorTopology<N> topology = new ConductorTopology<>();
+        topology.nextId = nbt.getInt(Constant.Nbt.NEXT_ID);
+        ListTag list = nbt.getList(Constant.Nbt.NETWORKS, Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag tag = list.getCompound(i);
+            int id = tag.getInt(Constant.Nbt.ID);
+            long[] members = tag.getLongArray(Constant.Nbt.MEMBERS);
+            byte[] endpoints = tag.getByteArray(Constant.Nbt.ENDPOINTS);
+            if (members.length == 0) continue;
+
+            Entry entry = new Entry(tag.getLong(Constant.Nbt.MAX_TRANSFER_RATE));
+            topology.entries.put(id, entry);
+            for (int j = 0; j < members.length; j++) {
+                topology.networkIds.put(members[j], id);
+                topology.addMember(id, entry, members[j]);
+                if (j < endpoints.length && endpoints[j] != 0) {
+                    topology.endpoints.put(members[j], endpoints[j]);
+                    topology.index(members[j], endpoints[j], true);
+                }
+            }
+        }
+        return topology;
+    }
+
+    @Override
+    public @NotNull CompoundTag save(CompoundTag nbt, HolderLookup.Provider registryLookup) {
+        ListTag list = new ListTag();
+        for (Int2ObjectMap.Entry<Entry> entry : this.entries.int2ObjectEntrySet()) {
+            long[] members = entry.getValue().members.toLongArray();
+            byte[] endpoints = new byte[members.length];
+            for (int i = 0; i < members.length; i++) {
+                endpoints[i] = this.endpoints.get(members[i]);
+            }
+
+            CompoundTag tag = new CompoundTag();
+            tag.putInt(Constant.Nbt.ID, entry.getIntKey());
+            tag.putLong(Constant.Nbt.MAX_TRANSFER_RATE, entry.getValue().maxTransferRate);
+            tag.put(Constant.Nbt.MEMBERS, new LongArrayTag(members));
+            tag.put(Constant.Nbt.ENDPOINTS, new ByteArrayTag(endpoints));
+            list.add(tag);
+        }
+        nbt.putInt(Constant.Nbt.NEXT_ID, this.nextId);
+        nbt.put(Constant.Nbt.NETWORKS, list);
+        return nbt;
+    }
+
+    /**
+     * A wire or pipe network that can be restored from a {@link ConductorTopology}.
+     */
+    public interface Network {
+        boolean markedForRemoval();
+
+        /**
+         * Lets go of the storages of a conductor that are in a chunk that is being unloaded.
+         * They are looked up again with {@link #restoreEndpoints(BlockPos, byte)} once the chunk is loaded.
+         *
+         * @param pos the position of the conductor
+         * @param chunk the chunk that is being unloaded
+         */
+        void releaseEndpoints(@NotNull BlockPos pos, @NotNull ChunkPos chunk);
+
+        /**
+         * Looks up the storages connected to the given faces of a conductor again.
+         *
+         * @param pos the position of the conductor
+         * @param faces the faces of the conductor that were connected to a storage, one bit per {@link Direction#get3DDataValue()}
+         */
+        void restoreEndpoints(@NotNull BlockPos pos, byte faces);
+    }
+
+    private record Entry(long maxTransferRate, LongOpenHashSet members, Long2IntOpenHashMap segments) {
+        private Entry(long maxTransferRate) {
+            this(maxTransferRate, new LongOpenHashSet(), new Long2IntOpenHashMap());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+/**
+ * Counts how many oxygen sources, such as bubble distributors and sealed spaces, cover each block of a level.
+ * <p>
+ * A block is only made breathable when its first source is added and only reset when its last source is removed,
+ * so overlapping sources never undo each other's work.
+ */
+public class OxygenSourceManager {
+    private final Level level;
+    private final Long2IntOpenHashMap sources = new Long2IntOpenHashMap();
+
+    public OxygenSourceManager(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * Adds a source to a block.
+     *
+     * @param pos the packed position of the block
+     */
+    public void addSource(long pos) {
+        if (this.level.getDefaultBreathable()) return;
+        if (this.sources.addTo(pos, 1) == 0) {
+            this.setBreathable(pos, true);
+        }
+    }
+
+    /**
+     * Removes a source that was previously added to a block.
+     *
+     * @param pos the packed position of the block
+     */
+    public void removeSource(long pos) {
+        if (this.level.getDefaultBreathable()) return;
+        int count = this.sources.addTo(pos, -1);
+        if (count <= 1) {
+            this.sources.remove(pos);
+            if (count == 1) this.setBreathable(pos, false);
+        }
+    }
+
+    /**
+     * Adds a source to a vertical run of blocks in a chunk, without looking up the chunk for every block.
+     *
+     * @param chunk the chunk containing the blocks
+     * @param x the x coordinate of the blocks
+     * @param minY the lowest y coordinate of the run, inclusive
+     * @param maxY the highest y coordinate of the run, inclusive
+     * @param z the z coordinate of the blocks
+     */
+    public void addSources(LevelChunk chunk, int x, int minY, int maxY, int z) {
+        if (this.level.getDefaultBreathable()) return;
+        for (int y = Math.max(minY, this.level.getMinBuildHeight()); y <= maxY && y < this.level.getMaxBuildHeight(); y++) {
+            if (this.sources.addTo(BlockPos.asLong(x, y, z), 1) == 0) {
+                this.level.setBreathableChunk(chunk, x & 15, y, z & 15, true);
+            }
+        }
+    }
+
+    /**
+     * Removes a source from a vertical run of blocks in a chunk, without looking up the chunk for every block.
+     *
+     * @param chunk the chunk containing the blocks
+     * @param x the x coordinate of the blocks
+     * @param minY the lowest y coordinate of the run, inclusive
+     * @param maxY the highest y coordinate of the run, inclusive
+     * @param z the z coordinate of the blocks
+     */
+    public void removeSources(LevelChunk chunk, int x, int minY, int maxY, int z) {
+        if (this.level.getDefaultBreathable()) return;
+        for (int y = Math.max(minY, this.level.getMinBuildHeight()); y <= maxY && y < this.level.getMaxBuildHeight(); y++) {
+            long pos = BlockPos.asLong(x, y, z);
+            int count = this.sources.addTo(pos, -1);
+            if (count <= 1) {
+                this.sources.remove(pos);
+                if (count == 1) this.level.setBreathableChunk(chunk, x & 15, y, z & 15, false);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of sources that cover a block.
+     *
+     * @param pos the packed position of the block
+     */
+    public int getSources(long pos) {
+        return this.sources.get(pos);
+    }
+
+    /**
+     * Called whenever a block in this level changes, after its breathable state was reset by the chunk.
+     *
+     * @param pos the position of the changed block
+     */
+    public void onBlockChanged(BlockPos pos) {
+        if (this.sources.containsKey(pos.asLong())) {
+            this.level.setBreathable(pos, true);
+        }
+    }
+
+    private void setBreathable(long pos, boolean value) {
+        this.level.setBreathable(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos), value);
+    }
+}
@@ -23,54 +23,241 @@
 package dev.galacticraft.mod.machine;
 
 import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.Galacticraft;
 import dev.galacticraft.mod.content.block.entity.machine.OxygenSealerBlockEntity;
-import dev.galacticraft.mod.tag.GCBlockTags;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static dev.galacticraft.mod.content.block.entity.machine.OxygenSealerBlockEntity.SEAL_CHECK_TIME;
 
+/**
+ * Keeps track of the spaces sealed by the oxygen sealers of a level.
+ * <p>
+ * Every flooded space is cached together with the blocks that bound it. A space is only flooded again when
+ * one of its sealers changes state or when a block inside or on the boundary of the space changes, and only the
+ * breathable states that actually differ from the previous result are written to the level.
+ * <p>
+ * When {@link dev.galacticraft.mod.api.config.Config#asyncSealing() asynchronous sealing} is enabled, spaces are
+ * flooded on a worker thread against a {@link SealingSnapshot} of the surrounding sections instead. The result is
+ * applied on a later tick, or thrown away if a block in one of the captured sections changed in the meantime.
+ * Spaces that keep failing to be flooded asynchronously are eventually flooded on the server thread.
+ */
 public class SealerManager {
 
-    private static class SpaceToSeal {
+    /**
+     * The space flooded from a single sealer.
+     * <p>
+     * Spaces that turn out to be connected are joined in a union-find structure. The root of a set holds the
+     * statistics of the joined space, and all spaces of a set form a circular list, so the blocks of the joined space
+     * can be iterated without ever copying them from one space to another.
+     */
+    private static class SpaceToSeal extends SealingFloodFill {
 
-        private final List<OxygenSealerBlockEntity> sealers = new ArrayList<>();
-        private final Set<BlockPos> blocksToSeal = new HashSet<>();
-        private final Deque<BlockPos> floodFillQueue = new ArrayDeque<>();
+        private final SealingPass pass;
+        private final OxygenSealerBlockEntity sealer;
+        private SpaceToSeal parent = this;
+        private SpaceToSeal nextMember = this;
+        // Only up to date for the root of a set
+        private int volume = 0;
+        private int sealerCount = 1;
+        private int merges = 0;
 
-        public SpaceToSeal(OxygenSealerBlockEntity sealer) {
-            sealers.add(sealer);
-            floodFillQueue.add(sealer.getBlockPos().offset(0, 1, 0));
+        public SpaceToSeal(SealingPass pass, OxygenSealerBlockEntity sealer) {
+            super(pass.reader);
+            this.pass = pass;
+            this.sealer = sealer;
+            this.enqueue(sealer.getBlockPos().above().asLong());
+        }
+
+        @Override
+        protected boolean canVisit(long pos) {
+            SpaceToSeal owner = this.pass.owners.get(pos);
+            if (owner == null) return true;
+            // We have encountered a block that another sealer is trying to seal,
+            // so both sealers must be within the same space, so we combine them.
+            this.pass.join(this, owner);
+            return false;
+        }
+
+        public SpaceToSeal root() {
+            SpaceToSeal root = this;
+            while (root.parent != root) root = root.parent;
+            // Compress the path so later lookups are constant time
+            SpaceToSeal space = this;
+            while (space != root) {
+                SpaceToSeal parent = space.parent;
+                space.parent = root;
+                space = parent;
+            }
+            return root;
         }
 
         public boolean willSealSucceed() {
-            return floodFillQueue.isEmpty();
+            SpaceToSeal member = this;
+            do {
+                if (!member.isComplete()) return false;
+                member = member.nextMember;
+            } while (member != this);
+            return true;
+        }
+
+    }
+
+    /**
+     * Floods the spaces of a group of sealers, joining spaces as they are found to be connected.
+     */
+    private static class SealingPass {
+
+        private final SealingBlockReader reader;
+        // The space that flooded each block
+        private final Long2ObjectMap<SpaceToSeal> owners;
+        // Roots of spaces flooded by earlier passes that may be joined by this pass
+        private final Set<SpaceToSeal> cachedSpaces;
+        // Roots of the spaces flooded by this pass
+        private final Set<SpaceToSeal> spacesToSeal = new HashSet<>();
+
+        private SealingPass(SealingBlockReader reader, Long2ObjectMap<SpaceToSeal> owners, Set<SpaceToSeal> cachedSpaces) {
+            this.reader = reader;
+            this.owners = owners;
+            this.cachedSpaces = cachedSpaces;
+        }
+
+        public void flood(OxygenSealerBlockEntity sealer) {
+            // Flood fill to find all blocks this sealer is trying to seal
+            SpaceToSeal spaceToSeal = new SpaceToSeal(this, sealer);
+            this.spacesToSeal.add(spaceToSeal);
+            long pos;
+            while ((pos = spaceToSeal.next()) != SealingFloodFill.END) {
+                this.owners.put(pos, spaceToSeal);
+                SpaceToSeal root = spaceToSeal.root();
+                root.volume++;
+
+                // If the space has become too large to fill, stop performing flood fill
+                if (root.volume > root.sealerCount * MAX_SEALER_VOLUME) break;
+            }
+        }
+
+        /**
+         * Joins the sets of two connected spaces while one of them is being flooded.
+         *
+         * @param space the space that is currently being flooded
+         * @param other the space that owns the block that was encountered
+         */
+        private void join(SpaceToSeal space, SpaceToSeal other) {
+            SpaceToSeal root = space.root();
+            SpaceToSeal otherRoot = other.root();
+            if (root == otherRoot) return;
+
+            // Cached spaces have to be applied again as part of the joined space
+            this.cachedSpaces.remove(otherRoot);
+            this.spacesToSeal.remove(otherRoot);
+            this.spacesToSeal.remove(root);
+
+            // Continue flooding from wherever the other space had to stop
+            SpaceToSeal member = otherRoot;
+            do {
+                space.takeQueue(member);
+                member = member.nextMember;
+            } while (member != otherRoot);
+
+            // Union by volume, so the paths to the root stay short
+            if (root.volume < otherRoot.volume) {
+                SpaceToSeal swap = root;
+                root = otherRoot;
+                otherRoot = swap;
+            }
+            otherRoot.parent = root;
+            root.volume += otherRoot.volume;
+            root.sealerCount += otherRoot.sealerCount;
+            root.merges += otherRoot.merges + 1;
+            SpaceToSeal next = root.nextMember;
+            root.nextMember = otherRoot.nextMember;
+            otherRoot.nextMember = next;
+            this.spacesToSeal.add(root);
+        }
+
+    }
+
+    /**
+     * A pass that runs on a worker thread against a snapshot of the sections around its sealers.
+     */
+    private static class SealingJob {
+
+        private final List<OxygenSealerBlockEntity> sealers;
+        private final SealingSnapshot snapshot;
+        private final CompletableFuture<Set<SpaceToSeal>> result;
+        // Set when a block in one of the captured sections changes before the result is applied
+        private boolean stale = false;
+
+        private SealingJob(List<OxygenSealerBlockEntity> sealers, SealingSnapshot snapshot) {
+            this.sealers = sealers;
+            this.snapshot = snapshot;
+            this.result = CompletableFuture.supplyAsync(() -> {
+                SealingPass pass = new SealingPass(snapshot, new Long2ObjectOpenHashMap<>(), new HashSet<>());
+                for (OxygenSealerBlockEntity sealer : sealers) pass.flood(sealer);
+                return pass.spacesToSeal;
+            }, Util.backgroundExecutor());
         }
 
     }
 
+    public record SpaceStats(BlockPos sealer, int volume, int sealers, int merges, boolean sealed) {
+    }
+
     private final Level level;
     private final Map<BlockPos, OxygenSealerBlockEntity> sealers = new HashMap<>();
-    private final Set<BlockPos> sealedBlocks = new HashSet<>();
-    private int sealCheckTimer = SEAL_CHECK_TIME;
+    // Blocks that the sealers of this level have added as oxygen sources
+    private final LongSet sealedBlocks = new LongOpenHashSet();
+    // The space that flooded each block, shared by all spaces of this level
+    private final Long2ObjectMap<SpaceToSeal> owners = new Long2ObjectOpenHashMap<>();
+    private final Map<OxygenSealerBlockEntity, SpaceToSeal> sealerSpaces = new HashMap<>();
+    // Roots of the spaces flooded by previous updates that are still valid
+    private final Set<SpaceToSeal> spaces = new HashSet<>();
+    // Sealers whose space must be flooded again on the next update
+    private final Set<OxygenSealerBlockEntity> pendingSealers = new HashSet<>();
+    // Blocks of invalidated spaces that were sealed and may have to be reset on the next update
+    private final LongSet releasedBlocks = new LongOpenHashSet();
+    // Sections that the asynchronous passes since the last applied result have needed
+    private final LongSet neededSections = new LongOpenHashSet();
+    // Asynchronous passes that have been thrown away since the last applied result
+    private int retries = 0;
+    private @Nullable SealingJob job = null;
 
     public SealerManager(Level level) {
         this.level = level;
     }
 
     private static final double MAX_SEALER_VOLUME = 1024;
+    private static final int MAX_ASYNC_RETRIES = 4;
 
     public void tick() {
-        // Update sealing status periodically
-        if (this.level.getGameTime() % SEAL_CHECK_TIME == 0) {
+        if (this.job != null) {
+            if (this.job.result.isDone()) this.completeJob();
+            return;
+        }
+
+        // Update sealing status periodically, but only if something has changed since the last update.
+        // Passes that ran into sections that were not captured are retried straight away.
+        if ((this.level.getGameTime() % SEAL_CHECK_TIME == 0 || !this.neededSections.isEmpty()) && this.isDirty()) {
             updateSealedBlocks();
         }
     }
 
+    public boolean isDirty() {
+        return !this.pendingSealers.isEmpty() || !this.releasedBlocks.isEmpty();
+    }
+
     public void updateSealedBlocks() {
         if (level.isClientSide) return;
 
@@ -82,73 +269,241 @@ public void updateSealedBlocks() {
             return;
         }
 
-        // Reset all sealed blocks from the previous update to not be breathable
-        for (BlockPos pos : sealedBlocks) level.setBreathable(pos, false);
-        sealedBlocks.clear();
+        if (this.job != null) return;
 
-        Set<SpaceToSeal> spacesToSeal = new HashSet<>();
-        for (Map.Entry<BlockPos, OxygenSealerBlockEntity> entry : this.sealers.entrySet()) {
-            OxygenSealerBlockEntity sealer = entry.getValue();
-            if (!sealer.hasEnergy()) continue;
-            if (!sealer.hasOxygen()) continue;
-            if (sealer.isBlocked()) continue;
+        List<OxygenSealerBlockEntity> sealers = new ArrayList<>(this.pendingSealers.size());
+        for (OxygenSealerBlockEntity sealer : this.pendingSealers) {
+            if (this.sealers.get(sealer.getBlockPos()) != sealer) continue;
+            if (!sealer.canSeal()) {
+                sealer.setSealed(false);
+                continue;
+            }
+            sealers.add(sealer);
+        }
+        this.pendingSealers.clear();
 
-            // Flood fill to find all blocks this sealer is trying to seal
-            SpaceToSeal spaceToSeal = new SpaceToSeal(sealer);
-            while (!spaceToSeal.floodFillQueue.isEmpty()) {
-                BlockPos pos = spaceToSeal.floodFillQueue.pollFirst();
-                if (spaceToSeal.blocksToSeal.contains(pos)) continue;
-                // TODO: Better check to account for non-full blocks
-                BlockState blockState = this.level.getBlockState(pos);
-                if (blockState.is(GCBlockTags.SEALABLE)) continue;
-                if (blockState.isCollisionShapeFullBlock(this.level, pos) && !blockState.is(GCBlockTags.UNSEALABLE)) continue;
-
-                spaceToSeal.blocksToSeal.add(pos);
-                for (Direction direction : Direction.values()) spaceToSeal.floodFillQueue.add(pos.relative(direction));
-
-                boolean willAlreadySeal = false;
-                for (SpaceToSeal otherSpace : spacesToSeal) {
-                    if (spaceToSeal == otherSpace) continue;
-                    if (!otherSpace.blocksToSeal.contains(pos)) continue;
-                    // We have encountered a block that another sealer is trying to seal,
-                    // so both sealers must be within the same space, so we combine them.
-                    spaceToSeal.sealers.addAll(otherSpace.sealers);
-                    spaceToSeal.blocksToSeal.addAll(otherSpace.blocksToSeal);
-                    spaceToSeal.floodFillQueue.addAll(otherSpace.floodFillQueue);
-                    willAlreadySeal = otherSpace.willSealSucceed();
-                    spacesToSeal.remove(otherSpace);
-                    break;
+        // Fall back to flooding on the server thread if the asynchronous passes keep being thrown away
+        if (Galacticraft.CONFIG.asyncSealing() && !sealers.isEmpty() && this.retries < MAX_ASYNC_RETRIES) {
+            this.startJob(sealers);
+            return;
+        }
+
+        this.neededSections.clear();
+        this.retries = 0;
+        SealingPass pass = new SealingPass(SealingBlockReader.of(this.level), this.owners, this.spaces);
+        for (OxygenSealerBlockEntity sealer : sealers) pass.flood(sealer);
+        this.applySpaces(pass.spacesToSeal);
+    }
+
+    private void startJob(List<OxygenSealerBlockEntity> sealers) {
+        LongSet sections = new LongOpenHashSet(this.neededSections);
+        for (OxygenSealerBlockEntity sealer : sealers) {
+            long section = SectionPos.asLong(sealer.getBlockPos());
+            for (int x = -1; x <= 1; x++) {
+                for (int y = -1; y <= 1; y++) {
+                    for (int z = -1; z <= 1; z++) {
+                        sections.add(SectionPos.offset(section, x, y, z));
+                    }
                 }
-                // If we just combined with a space that was already filled,
-                // we must be in the same space, so we don't need to continue flood fill
-                if (willAlreadySeal) break;
+            }
+        }
+        this.job = new SealingJob(sealers, SealingSnapshot.capture(this.level, sections));
+    }
 
-                // If the space has become too large to fill, stop performing flood fill
-                if (spaceToSeal.blocksToSeal.size() > spaceToSeal.sealers.size() * MAX_SEALER_VOLUME) break;
+    private void completeJob() {
+        SealingJob job = Objects.requireNonNull(this.job);
+        this.job = null;
+
+        Set<SpaceToSeal> spacesToSeal = job.result.join();
+        if (job.stale || !job.snapshot.getMissingSections().isEmpty()) {
+            // Flood the spaces again with a fresh snapshot that includes every section that was needed so far,
+            // so a space that spans more sections than one pass discovers cannot keep missing different ones
+            if (!job.snapshot.getMissingSections().isEmpty()) {
+                this.neededSections.addAll(job.snapshot.getCapturedSections());
+                this.neededSections.addAll(job.snapshot.getMissingSections());
             }
-            spacesToSeal.add(spaceToSeal);
+            this.retries++;
+            this.requeue(job.sealers);
+            return;
+        }
+
+        // The pass did not know about the spaces cached in the meantime, so check whether it reached any of them
+        Set<SpaceToSeal> conflicts = new HashSet<>();
+        for (SpaceToSeal root : spacesToSeal) {
+            SpaceToSeal member = root;
+            do {
+                LongIterator iterator = member.blocks().iterator();
+                while (iterator.hasNext()) {
+                    SpaceToSeal owner = this.owners.get(iterator.nextLong());
+                    if (owner != null) conflicts.add(owner.root());
+                }
+                member = member.nextMember;
+            } while (member != root);
+        }
+        if (!conflicts.isEmpty()) {
+            // Flood everything that is connected together in the next pass
+            for (SpaceToSeal conflict : conflicts) {
+                this.spaces.remove(conflict);
+                this.invalidate(conflict);
+            }
+            this.requeue(job.sealers);
+            return;
+        }
+
+        for (SpaceToSeal root : spacesToSeal) {
+            SpaceToSeal member = root;
+            do {
+                LongIterator iterator = member.blocks().iterator();
+                while (iterator.hasNext()) this.owners.put(iterator.nextLong(), member);
+                member = member.nextMember;
+            } while (member != root);
+        }
+        this.neededSections.clear();
+        this.retries = 0;
+        this.applySpaces(spacesToSeal);
+    }
+
+    private void requeue(List<OxygenSealerBlockEntity> sealers) {
+        for (OxygenSealerBlockEntity sealer : sealers) {
+            if (this.sealers.get(sealer.getBlockPos()) == sealer) this.pendingSealers.add(sealer);
+        }
+    }
+
+    private void applySpaces(Set<SpaceToSeal> spacesToSeal) {
+        // Only add or remove the sources that actually change
+        for (SpaceToSeal root : spacesToSeal) {
+            boolean sealed = root.willSealSucceed();
+            SpaceToSeal member = root;
+            do {
+                member.sealer.setSealed(sealed);
+                this.sealerSpaces.put(member.sealer, member);
+                LongIterator iterator = member.blocks().iterator();
+                while (iterator.hasNext()) {
+                    long pos = iterator.nextLong();
+                    if (sealed) {
+                        this.releasedBlocks.remove(pos);
+                        if (this.sealedBlocks.add(pos)) this.sources().addSource(pos);
+                    } else if (this.sealedBlocks.remove(pos)) {
+                        this.sources().removeSource(pos);
+                    }
+                }
+                member = member.nextMember;
+            } while (member != root);
+            this.spaces.add(root);
         }
 
-        for (SpaceToSeal spaceToSeal : spacesToSeal) {
-            for (OxygenSealerBlockEntity sealer : spaceToSeal.sealers) sealer.setSealed(spaceToSeal.willSealSucceed());
-            if (!spaceToSeal.willSealSucceed()) continue;
-            for (BlockPos pos : spaceToSeal.blocksToSeal) {
-                sealedBlocks.add(pos);
-                level.setBreathable(pos, true);
+        LongIterator iterator = this.releasedBlocks.iterator();
+        while (iterator.hasNext()) {
+            long pos = iterator.nextLong();
+            if (this.sealedBlocks.remove(pos)) this.sources().removeSource(pos);
+        }
+        this.releasedBlocks.clear();
+    }
+
+    private OxygenSourceManager sources() {
+        return this.level.galacticraft$getOxygenSourceManager();
+    }
+
+    private void invalidate(SpaceToSeal root) {
+        boolean sealed = root.willSealSucceed();
+        SpaceToSeal member = root;
+        do {
+            this.pendingSealers.add(member.sealer);
+            this.sealerSpaces.remove(member.sealer);
+            LongIterator iterator = member.blocks().iterator();
+            while (iterator.hasNext()) {
+                long pos = iterator.nextLong();
+                this.owners.remove(pos);
+                if (sealed) this.releasedBlocks.add(pos);
             }
+            member = member.nextMember;
+        } while (member != root);
+    }
+
+    private void invalidateSpaceOf(OxygenSealerBlockEntity sealer) {
+        if (this.job != null && this.job.sealers.contains(sealer)) this.job.stale = true;
+
+        SpaceToSeal space = this.sealerSpaces.get(sealer);
+        if (space != null) {
+            SpaceToSeal root = space.root();
+            this.spaces.remove(root);
+            this.invalidate(root);
+        }
+    }
+
+    /**
+     * Called whenever a block in this level changes. Invalidates every cached space that the change could affect.
+     *
+     * @param pos the position of the changed block
+     */
+    public void onBlockChanged(BlockPos pos) {
+        if (this.job != null && this.job.snapshot.contains(SectionPos.asLong(pos))) this.job.stale = true;
+
+        // The breathable state of a changed block is reset by the chunk,
+        // so its source has to be added again if the block is still sealed
+        long packed = pos.asLong();
+        if (this.sealedBlocks.remove(packed)) this.sources().removeSource(packed);
+
+        if (this.spaces.isEmpty()) return;
+
+        SpaceToSeal owner = this.owners.get(packed);
+        if (owner != null) {
+            SpaceToSeal root = owner.root();
+            if (this.spaces.remove(root)) this.invalidate(root);
+        }
+
+        // Walls can be shared by several spaces
+        Iterator<SpaceToSeal> iterator = this.spaces.iterator();
+        while (iterator.hasNext()) {
+            SpaceToSeal root = iterator.next();
+            SpaceToSeal member = root;
+            do {
+                if (member.isAffectedBy(packed)) {
+                    iterator.remove();
+                    this.invalidate(root);
+                    break;
+                }
+                member = member.nextMember;
+            } while (member != root);
+        }
+    }
+
+    /**
+     * Called when a sealer starts or stops being able to seal, for example because it ran out of energy.
+     *
+     * @param sealer the sealer that changed
+     */
+    public void onSealerChanged(OxygenSealerBlockEntity sealer) {
+        if (this.sealers.get(sealer.getBlockPos()) != sealer) return;
+        this.invalidateSpaceOf(sealer);
+        this.pendingSealers.add(sealer);
+    }
+
+    /**
+     * Returns the statistics of every space that is currently known, for debugging purposes.
+     */
+    public List<SpaceStats> getSpaceStats() {
+        List<SpaceStats> stats = new ArrayList<>(this.spaces.size());
+        for (SpaceToSeal root : this.spaces) {
+            stats.add(new SpaceStats(root.sealer.getBlockPos(), root.volume, root.sealerCount, root.merges, root.willSealSucceed()));
         }
+        return stats;
     }
 
     public void addSealer(OxygenSealerBlockEntity sealer) {
         BlockPos pos = sealer.getBlockPos();
         Constant.LOGGER.info("Adding sealer at {} in dimension {}", pos, level.dimension().location());
         this.sealers.put(pos, sealer);
+        this.invalidateSpaceOf(sealer);
+        this.pendingSealers.add(sealer);
     }
 
     public void removeSealer(OxygenSealerBlockEntity sealer) {
         BlockPos pos = sealer.getBlockPos();
         Constant.LOGGER.info("Removing sealer at {} in dimension {}", pos, level.dimension().location());
         this.sealers.remove(pos);
+        this.invalidateSpaceOf(sealer);
+        this.pendingSealers.remove(sealer);
     }
 
 }
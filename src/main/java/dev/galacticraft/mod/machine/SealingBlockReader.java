@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import dev.galacticraft.mod.tag.GCBlockTags;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads the blocks visited by the sealer flood fill.
+ * Flood fills mostly walk within a single chunk section, so the last section is cached
+ * to avoid going through the chunk lookup for every block.
+ *
+ * @see SealingSnapshot
+ */
+public abstract class SealingBlockReader {
+    private static final BlockState VOID_AIR = Blocks.VOID_AIR.defaultBlockState();
+
+    private final BlockGetter blockGetter;
+    private final BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+    private int sectionX = Integer.MIN_VALUE;
+    private int sectionY = Integer.MIN_VALUE;
+    private int sectionZ = Integer.MIN_VALUE;
+    private @Nullable PalettedContainer<BlockState> section;
+
+    /**
+     * @param blockGetter the block getter used to query the collision shapes of blocks
+     */
+    protected SealingBlockReader(BlockGetter blockGetter) {
+        this.blockGetter = blockGetter;
+    }
+
+    /**
+     * Creates a reader that reads the blocks of the level directly. Must only be used on the level's thread.
+     *
+     * @param level the level to read
+     * @return a reader for the level
+     */
+    public static SealingBlockReader of(Level level) {
+        return new SealingBlockReader(level) {
+            @Override
+            protected @Nullable PalettedContainer<BlockState> getSection(int sectionX, int sectionY, int sectionZ) {
+                int index = level.getSectionIndexFromSectionY(sectionY);
+                if (index < 0 || index >= level.getSectionsCount()) return null;
+                return level.getChunk(sectionX, sectionZ).getSection(index).getStates();
+            }
+        };
+    }
+
+    public BlockState getBlockState(long pos) {
+        int x = BlockPos.getX(pos);
+        int y = BlockPos.getY(pos);
+        int z = BlockPos.getZ(pos);
+        int sectionX = SectionPos.blockToSectionCoord(x);
+        int sectionY = SectionPos.blockToSectionCoord(y);
+        int sectionZ = SectionPos.blockToSectionCoord(z);
+        if (sectionX != this.sectionX || sectionY != this.sectionY || sectionZ != this.sectionZ) {
+            this.sectionX = sectionX;
+            this.sectionY = sectionY;
+            this.sectionZ = sectionZ;
+            this.section = this.getSection(sectionX, sectionY, sectionZ);
+        }
+        return this.section == null ? VOID_AIR : this.section.get(x & 15, y & 15, z & 15);
+    }
+
+    /**
+     * Returns whether the block at the given position stops oxygen from flowing through it.
+     *
+     * @param pos the packed position of the block
+     * @return whether the block is airtight
+     */
+    public boolean isAirtight(long pos) {
+        // TODO: Better check to account for non-full blocks
+        BlockState state = this.getBlockState(pos);
+        if (state.is(GCBlockTags.SEALABLE)) return true;
+        return state.isCollisionShapeFullBlock(this.blockGetter, this.mutable.set(pos)) && !state.is(GCBlockTags.UNSEALABLE);
+    }
+
+    /**
+     * Returns the block states of a chunk section.
+     *
+     * @return the block states of the section, or {@code null} if the section is outside the build height
+     */
+    protected abstract @Nullable PalettedContainer<BlockState> getSection(int sectionX, int sectionY, int sectionZ);
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+
+/**
+ * A breadth-first flood fill over packed block positions that finds the space an oxygen sealer is trying to seal.
+ * <p>
+ * Besides the blocks of the space itself, the airtight blocks that bound it are recorded,
+ * so that callers can tell whether a block change could affect the result.
+ */
+public class SealingFloodFill {
+    /**
+     * Returned by {@link #next()} when there are no more blocks to visit.
+     * This is never a valid position, as it lies outside the world border.
+     */
+    public static final long END = Long.MIN_VALUE;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final SealingBlockReader reader;
+    private final LongOpenHashSet blocks = new LongOpenHashSet();
+    private final LongOpenHashSet boundary = new LongOpenHashSet();
+    private final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+    private int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+    public SealingFloodFill(SealingBlockReader reader) {
+        this.reader = reader;
+    }
+
+    public void enqueue(long pos) {
+        this.queue.enqueue(pos);
+    }
+
+    /**
+     * Visits blocks until a new block of the space is found.
+     *
+     * @return the packed position of the block that was added to the space, or {@link #END} if the space is fully explored
+     */
+    public long next() {
+        while (!this.queue.isEmpty()) {
+            long pos = this.queue.dequeueLong();
+            if (this.blocks.contains(pos) || this.boundary.contains(pos)) continue;
+
+            if (this.reader.isAirtight(pos)) {
+                // Changes to the walls of the space may open it up, so they have to be watched too
+                this.include(pos);
+                this.boundary.add(pos);
+                continue;
+            }
+            if (!this.canVisit(pos)) continue;
+
+            this.include(pos);
+
+            this.blocks.add(pos);
+            for (Direction direction : DIRECTIONS) {
+                long neighbour = BlockPos.offset(pos, direction);
+                if (!this.blocks.contains(neighbour)) this.queue.enqueue(neighbour);
+            }
+            return pos;
+        }
+        return END;
+    }
+
+    /**
+     * Returns whether the flood fill has visited every block reachable from its start.
+     */
+    public boolean isComplete() {
+        return this.queue.isEmpty();
+    }
+
+    public int volume() {
+        return this.blocks.size();
+    }
+
+    public LongSet blocks() {
+        return this.blocks;
+    }
+
+    /**
+     * Moves the blocks that are still queued in the other flood fill into this one, so that this flood fill
+     * continues where the other one stopped.
+     *
+     * @param other the flood fill to take the queue from
+     */
+    public void takeQueue(SealingFloodFill other) {
+        while (!other.queue.isEmpty()) {
+            this.queue.enqueue(other.queue.dequeueLong());
+        }
+    }
+
+    /**
+     * Returns whether this flood fill may add the given (not airtight) block to its space.
+     * Subclasses use this to stop at blocks that already belong to another space.
+     *
+     * @param pos the packed position of the block
+     * @return whether the block can be visited
+     */
+    protected boolean canVisit(long pos) {
+        return true;
+    }
+
+    /**
+     * Returns whether a change of the block at the given position could change the result of this flood fill.
+     *
+     * @param pos the packed position of the changed block
+     */
+    public boolean isAffectedBy(long pos) {
+        int x = BlockPos.getX(pos);
+        int y = BlockPos.getY(pos);
+        int z = BlockPos.getZ(pos);
+        if (x < this.minX || y < this.minY || z < this.minZ || x > this.maxX || y > this.maxY || z > this.maxZ) {
+            return false;
+        }
+        return this.blocks.contains(pos) || this.boundary.contains(pos);
+    }
+
+    private void include(long pos) {
+        int x = BlockPos.getX(pos);
+        int y = BlockPos.getY(pos);
+        int z = BlockPos.getZ(pos);
+        this.minX = Math.min(this.minX, x);
+        this.minY = Math.min(this.minY, y);
+        this.minZ = Math.min(this.minZ, z);
+        this.maxX = Math.max(this.maxX, x);
+        this.maxY = Math.max(this.maxY, y);
+        this.maxZ = Math.max(this.maxZ, z);
+    }
+}
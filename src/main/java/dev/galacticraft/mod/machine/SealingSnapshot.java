@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable copy of the block states of some chunk sections, so that flood fills can run off the server thread.
+ * <p>
+ * Sections that were not captured read as airtight and are recorded in {@link #getMissingSections()},
+ * so that the caller can capture them and try again.
+ */
+public class SealingSnapshot extends SealingBlockReader {
+    private static final PalettedContainer<BlockState> MISSING = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, Blocks.BARRIER.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES);
+
+    private final Long2ObjectMap<PalettedContainer<BlockState>> sections;
+    private final LongSet missingSections = new LongOpenHashSet();
+    private final int minSection;
+    private final int maxSection;
+
+    private SealingSnapshot(Long2ObjectMap<PalettedContainer<BlockState>> sections, int minSection, int maxSection) {
+        // Collision shapes are queried without a level, as it must not be accessed off-thread
+        super(EmptyBlockGetter.INSTANCE);
+        this.sections = sections;
+        this.minSection = minSection;
+        this.maxSection = maxSection;
+    }
+
+    /**
+     * Copies the given sections of the level. Must be called on the level's thread.
+     *
+     * @param level the level to copy the sections from
+     * @param sections the packed positions of the sections to copy
+     * @return the snapshot of the sections
+     */
+    public static SealingSnapshot capture(Level level, LongSet sections) {
+        Long2ObjectMap<PalettedContainer<BlockState>> copies = new Long2ObjectOpenHashMap<>(sections.size());
+        LongIterator iterator = sections.iterator();
+        while (iterator.hasNext()) {
+            long section = iterator.nextLong();
+            int index = level.getSectionIndexFromSectionY(SectionPos.y(section));
+            if (index < 0 || index >= level.getSectionsCount()) continue;
+            copies.put(section, level.getChunk(SectionPos.x(section), SectionPos.z(section)).getSection(index).getStates().copy());
+        }
+        return new SealingSnapshot(copies, level.getMinSection(), level.getMaxSection());
+    }
+
+    /**
+     * Returns whether a block in the given section could change the result of a flood fill on this snapshot.
+     *
+     * @param section the packed position of the section
+     */
+    public boolean contains(long section) {
+        return this.sections.containsKey(section);
+    }
+
+    public LongSet getCapturedSections() {
+        return this.sections.keySet();
+    }
+
+    public LongSet getMissingSections() {
+        return this.missingSections;
+    }
+
+    @Override
+    protected @Nullable PalettedContainer<BlockState> getSection(int sectionX, int sectionY, int sectionZ) {
+        if (sectionY < this.minSection || sectionY >= this.maxSection) return null;
+        long section = SectionPos.asLong(sectionX, sectionY, sectionZ);
+        PalettedContainer<BlockState> states = this.sections.get(section);
+        if (states == null) {
+            this.missingSections.add(section);
+            return MISSING;
+        }
+        return states;
+    }
+}
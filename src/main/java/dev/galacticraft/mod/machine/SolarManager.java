@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import dev.galacticraft.mod.api.block.entity.AbstractSolarPanelBlockEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of the solar panels of a level and of the conditions they generate energy in.
+ * Panels only check which of the blocks above them can see the sky when the {@code MOTION_BLOCKING} heightmap
+ * changes in one of the columns they cover, and the weather and sun position are only read once per tick.
+ *
+ * @see SolarState
+ */
+public class SolarManager {
+    private final Level level;
+    // The panels whose blockage depends on each column
+    private final Long2ObjectOpenHashMap<List<AbstractSolarPanelBlockEntity>> panels = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<SolarState> states = new Long2ObjectOpenHashMap<>(1);
+    private long conditionsTime = Long.MIN_VALUE;
+    private double weatherMultiplier = 1.0;
+
+    public SolarManager(Level level) {
+        this.level = level;
+    }
+
+    public void addPanel(AbstractSolarPanelBlockEntity panel) {
+        BlockPos pos = panel.getBlockPos();
+        for (int x = -1; x < 2; x++) {
+            for (int z = -1; z < 2; z++) {
+                this.panels.computeIfAbsent(column(pos.getX() + x, pos.getZ() + z), k -> new ArrayList<>(1)).add(panel);
+            }
+        }
+    }
+
+    public void removePanel(AbstractSolarPanelBlockEntity panel) {
+        BlockPos pos = panel.getBlockPos();
+        for (int x = -1; x < 2; x++) {
+            for (int z = -1; z < 2; z++) {
+                long column = column(pos.getX() + x, pos.getZ() + z);
+                List<AbstractSolarPanelBlockEntity> list = this.panels.get(column);
+                if (list != null && list.remove(panel) && list.isEmpty()) {
+                    this.panels.remove(column);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called when the {@code MOTION_BLOCKING} heightmap of a column changes.
+     *
+     * @param x the x coordinate of the column
+     * @param z the z coordinate of the column
+     */
+    public void onHeightmapChanged(int x, int z) {
+        List<AbstractSolarPanelBlockEntity> list = this.panels.get(column(x, z));
+        if (list != null) {
+            for (AbstractSolarPanelBlockEntity panel : list) {
+                panel.invalidateExposure();
+            }
+        }
+    }
+
+    /**
+     * Returns how much of the sunlight gets through the weather this tick.
+     *
+     * @return 1 when the sky is clear, 0.5 when it is raining and 0.1 during thunderstorms
+     */
+    public double getWeatherMultiplier() {
+        this.updateConditions();
+        return this.weatherMultiplier;
+    }
+
+    /**
+     * Returns the sun position shared by all panels with the given day length.
+     *
+     * @param dayLength the day length of the celestial body that the panels are on
+     * @return the sun position for that day length
+     */
+    public SolarState getState(long dayLength) {
+        return this.states.computeIfAbsent(dayLength, l -> new SolarState(this.level, l));
+    }
+
+    private void updateConditions() {
+        long time = this.level.getGameTime();
+        if (time == this.conditionsTime) return;
+        this.conditionsTime = time;
+
+        if (this.level.isThundering()) {
+            this.weatherMultiplier = 0.1;
+        } else if (this.level.isRaining()) {
+            this.weatherMultiplier = 0.5;
+        } else {
+            this.weatherMultiplier = 1.0;
+        }
+    }
+
+    private static long column(int x, int z) {
+        return BlockPos.asLong(x, 0, z);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.machine;
+
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.Level;
+
+import static dev.galacticraft.mod.api.block.entity.AbstractSolarPanelBlockEntity.DAWN;
+import static dev.galacticraft.mod.api.block.entity.AbstractSolarPanelBlockEntity.DUSK;
+import static dev.galacticraft.mod.api.block.entity.AbstractSolarPanelBlockEntity.MAX;
+import static dev.galacticraft.mod.api.block.entity.AbstractSolarPanelBlockEntity.MIN;
+import static dev.galacticraft.mod.api.block.entity.AbstractSolarPanelBlockEntity.NOON;
+import static dev.galacticraft.mod.api.block.entity.AbstractSolarPanelBlockEntity.SUNRISE;
+import static dev.galacticraft.mod.api.block.entity.AbstractSolarPanelBlockEntity.SUNSET;
+
+/**
+ * The position of the sun as seen by the solar panels of a level with a given day length.
+ * Everything is computed once per tick, or once per frame for the tilt of the panels,
+ * and shared by all panels in the level.
+ *
+ * @see SolarManager#getState(long)
+ */
+public class SolarState {
+    // Below this cosine of the sun angle, panels that follow the sun no longer get full sunlight
+    private static final double TRACKING_THRESHOLD = 0.26761643317033024;
+
+    private final Level level;
+    private final long dayLength;
+    private long updated = Long.MIN_VALUE;
+    private long time;
+    private boolean night;
+    private double fixedFactor;
+    private double trackingFactor;
+
+    private long tiltUpdated = Long.MIN_VALUE;
+    private float tiltTickDelta = Float.NaN;
+    private float dayTilt;
+    private float nightTilt;
+
+    public SolarState(Level level, long dayLength) {
+        this.level = level;
+        this.dayLength = dayLength;
+    }
+
+    /**
+     * Returns the time since sunrise, folded around noon, so that it increases until noon and decreases after it.
+     */
+    public long getTime() {
+        this.update();
+        return this.time;
+    }
+
+    /**
+     * Returns whether the sun has set. Unlike {@link Level#isDay()}, this is not affected by the weather.
+     */
+    public boolean isNight() {
+        this.update();
+        return this.night;
+    }
+
+    /**
+     * Returns the part of the full energy production that a panel gets from the current sun position.
+     *
+     * @param followsSun whether the panel turns towards the sun
+     * @return a value between 0 and 1
+     */
+    public double getGenerationFactor(boolean followsSun) {
+        this.update();
+        return followsSun ? this.trackingFactor : this.fixedFactor;
+    }
+
+    /**
+     * Returns the angle that a panel that follows the sun turns towards.
+     *
+     * @param tickDelta the progress of the current tick
+     * @param nightCollection whether the panel also collects light at night
+     * @return the target angle in radians
+     */
+    public float getTilt(float tickDelta, boolean nightCollection) {
+        long gameTime = this.level.getGameTime();
+        if (gameTime != this.tiltUpdated || tickDelta != this.tiltTickDelta) {
+            this.tiltUpdated = gameTime;
+            this.tiltTickDelta = tickDelta;
+            float angle = this.level.getSunAngle(tickDelta);
+            this.dayTilt = tilt(angle, false);
+            this.nightTilt = tilt(angle, true);
+        }
+        return nightCollection ? this.nightTilt : this.dayTilt;
+    }
+
+    private void update() {
+        long gameTime = this.level.getGameTime();
+        if (gameTime == this.updated) return;
+        this.updated = gameTime;
+
+        long time = this.level.getDayTime() % this.dayLength;
+        this.night = time > this.dayLength / 2;
+        if (time > this.dayLength / 4) time = this.dayLength / 2 - time;
+        this.time = time;
+
+        double cos = Math.cos(this.level.getSunAngle(1.0f));
+        this.fixedFactor = Math.max(cos, 0.0);
+        this.trackingFactor = cos <= 0 ? 0.0 : Math.min(cos / TRACKING_THRESHOLD, 1.0);
+    }
+
+    // Angle in radians - 0 noon, pi/2 sunset, pi midnight, 3pi/2 sunrise
+    private static float tilt(float angle, boolean nightCollection) {
+        if (angle > DUSK && angle < DAWN) {
+            if (nightCollection) {
+                angle -= Mth.PI;
+            } else {
+                angle = NOON;
+            }
+        } else if ((angle > SUNSET && angle <= DUSK) || (angle >= DAWN && angle < SUNRISE)) {
+            if (nightCollection) {
+                angle = -MAX;
+            } else {
+                angle = NOON;
+            }
+        } else if (angle >= SUNRISE && angle < MIN) {
+            angle = -MAX;
+        } else if (angle <= SUNSET && angle > MAX) {
+            angle = MAX;
+        } else if (angle >= SUNRISE) {
+            angle -= 2 * Mth.PI;
+        }
+        return angle;
+    }
+}
@@ -23,7 +23,11 @@
 package dev.galacticraft.mod.mixin;
 
 import dev.galacticraft.mod.accessor.GCLevelAccessor;
+import dev.galacticraft.mod.api.wire.impl.WireNetworkSettler;
+import dev.galacticraft.mod.machine.BubbleSizeSyncer;
+import dev.galacticraft.mod.machine.OxygenSourceManager;
 import dev.galacticraft.mod.machine.SealerManager;
+import dev.galacticraft.mod.machine.SolarManager;
 import net.minecraft.world.level.Level;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
@@ -32,9 +36,37 @@
 public class LevelMixin implements GCLevelAccessor {
     @Unique
     private final SealerManager sealerManager = new SealerManager((Level) (Object) this);
+    @Unique
+    private final OxygenSourceManager oxygenSourceManager = new OxygenSourceManager((Level) (Object) this);
+    @Unique
+    private final BubbleSizeSyncer bubbleSizeSyncer = new BubbleSizeSyncer();
+    @Unique
+    private final WireNetworkSettler wireNetworkSettler = new WireNetworkSettler();
+    @Unique
+    private final SolarManager solarManager = new SolarManager((Level) (Object) this);
 
     @Override
     public SealerManager galacticraft$getSealerManager() {
         return sealerManager;
     }
+
+    @Override
+    public OxygenSourceManager galacticraft$getOxygenSourceManager() {
+        return oxygenSourceManager;
+    }
+
+    @Override
+    public BubbleSizeSyncer galacticraft$getBubbleSizeSyncer() {
+        return bubbleSizeSyncer;
+    }
+
+    @Override
+    public WireNetworkSettler galacticraft$getWireNetworkSettler() {
+        return wireNetworkSettler;
+    }
+
+    @Override
+    public SolarManager galacticraft$getSolarManager() {
+        return solarManager;
+    }
 }
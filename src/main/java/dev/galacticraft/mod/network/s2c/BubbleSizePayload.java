@@ -37,32 +37,32 @@
 import net.minecraft.world.level.block.entity.BlockEntity;
 import org.jetbrains.annotations.NotNull;
 
-public record BubbleSizePayload(BlockPos pos, double size) implements S2CPayload {
+import java.util.List;
+
+/**
+ * Updates the size of the bubbles of some distributors in a single chunk.
+ */
+public record BubbleSizePayload(List<Entry> bubbles) implements S2CPayload {
     public static final StreamCodec<ByteBuf, BubbleSizePayload> STREAM_CODEC = StreamCodec.composite(
-            BlockPos.STREAM_CODEC,
-            p -> p.pos,
-            ByteBufCodecs.DOUBLE,
-            p -> p.size,
+            Entry.STREAM_CODEC.apply(ByteBufCodecs.list()),
+            p -> p.bubbles,
             BubbleSizePayload::new
     );
 
     public static final ResourceLocation ID = Constant.id("bubble_size");
     public static final CustomPacketPayload.Type<BubbleSizePayload> TYPE = new CustomPacketPayload.Type<>(ID);
 
-    public BubbleSizePayload {
-        if (size < 0) {
-            throw new IllegalArgumentException("Size cannot be negative");
-        }
-    }
-
     @Override
     public Runnable handle(@NotNull ClientPlayNetworking.Context context) {
         return () -> {
             ClientLevel level = context.client().level;
-            if (level != null && level.hasChunk(SectionPos.blockToSectionCoord(this.pos().getX()), SectionPos.blockToSectionCoord(this.pos().getZ()))) {
-                BlockEntity entity = level.getBlockEntity(this.pos());
-                if (entity instanceof OxygenBubbleDistributorBlockEntity machine) {
-                    machine.setSize(this.size());
+            if (level == null) return;
+            for (Entry bubble : this.bubbles) {
+                if (level.hasChunk(SectionPos.blockToSectionCoord(bubble.pos().getX()), SectionPos.blockToSectionCoord(bubble.pos().getZ()))) {
+                    BlockEntity entity = level.getBlockEntity(bubble.pos());
+                    if (entity instanceof OxygenBubbleDistributorBlockEntity machine) {
+                        machine.setSyncedSize(bubble.size(), bubble.rate());
+                    }
                 }
             }
         };
@@ -72,4 +72,29 @@ public Runnable handle(@NotNull ClientPlayNetworking.Context context) {
     public @NotNull Type<? extends CustomPacketPayload> type() {
         return TYPE;
     }
+
+    /**
+     * The size of a single bubble.
+     *
+     * @param pos the position of the distributor
+     * @param size the size of the bubble
+     * @param rate the change of the size per tick, which the client uses to animate the bubble until the next update
+     */
+    public record Entry(BlockPos pos, double size, double rate) {
+        public static final StreamCodec<ByteBuf, Entry> STREAM_CODEC = StreamCodec.composite(
+                BlockPos.STREAM_CODEC,
+                Entry::pos,
+                ByteBufCodecs.DOUBLE,
+                Entry::size,
+                ByteBufCodecs.DOUBLE,
+                Entry::rate,
+                Entry::new
+        );
+
+        public Entry {
+            if (size < 0) {
+                throw new IllegalArgumentException("Size cannot be negative");
+            }
+        }
+    }
 }
@@ -54,7 +54,7 @@ public Runnable handle(ClientPlayNetworking.@NotNull Context context) {
         return () -> {
             if (context.player().level().getBlockEntity(this.pos) instanceof OxygenBubbleDistributorBlockEntity machine) {
                 machine.setTargetSize(this.maxSize);
-                machine.setSize(this.size);
+                machine.setSyncedSize(this.size, 0);
                 machine.setBubbleVisible(this.visible);
             }
         };
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.util;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Looks up blocks and block entities for walks over connected blocks, such as wire and pipe networks.
+ * Neighbouring blocks are almost always in the same chunk, so the last chunk is cached
+ * to avoid going through the chunk source for every block.
+ * Like {@link Level#getBlockEntity(BlockPos)}, chunks that are not loaded yet will be loaded.
+ * Must only be used on the level's thread, and should not be kept around for longer than a single walk.
+ */
+public class CachedChunkAccess {
+    private final Level level;
+    private int chunkX = Integer.MAX_VALUE;
+    private int chunkZ = Integer.MAX_VALUE;
+    private @Nullable LevelChunk chunk;
+
+    public CachedChunkAccess(Level level) {
+        this.level = level;
+    }
+
+    public LevelChunk getChunk(BlockPos pos) {
+        int chunkX = SectionPos.blockToSectionCoord(pos.getX());
+        int chunkZ = SectionPos.blockToSectionCoord(pos.getZ());
+        if (this.chunk == null || chunkX != this.chunkX || chunkZ != this.chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.chunk = this.level.getChunk(chunkX, chunkZ);
+        }
+        return this.chunk;
+    }
+
+    public BlockState getBlockState(BlockPos pos) {
+        if (this.level.isOutsideBuildHeight(pos)) return Blocks.VOID_AIR.defaultBlockState();
+        return this.getChunk(pos).getBlockState(pos);
+    }
+
+    public @Nullable BlockEntity getBlockEntity(BlockPos pos) {
+        if (this.level.isOutsideBuildHeight(pos)) return null;
+        return this.getChunk(pos).getBlockEntity(pos, LevelChunk.EntityCreationType.IMMEDIATE);
+    }
+}
@@ -76,6 +76,8 @@ interface Waila {
         String OXYGEN_TANK_LABEL = "tooltip.galacticraft.waila_oxygen_tank";
         String PLUGIN_GALACTICRAFT = "config.waila.plugin_galacticraft";
         String SHOW_OXYGEN_LEVEL = "config.waila.plugin_galacticraft.oxygen_level.enabled";
+        String PIPE_THROUGHPUT_LABEL = "tooltip.galacticraft.waila_pipe_throughput";
+        String SHOW_PIPE_THROUGHPUT = "config.waila.plugin_galacticraft.pipe_throughput.enabled";
     }
 
     interface BannerPattern {
@@ -111,6 +113,15 @@ interface RegistryDebug {
         String ID = "commands.galacticraft.debug.registry.id";
     }
 
+    interface OxygenSyncDebug {
+        String STATS = "commands.galacticraft.debug.oxygen_sync.stats";
+    }
+
+    interface SealingDebug {
+        String HEADER = "commands.galacticraft.debug.sealing.header";
+        String SPACE = "commands.galacticraft.debug.sealing.space";
+    }
+
     interface SetOxygen {
         String SUCCESS_SINGLE = "commands.galacticraft.oxygen.set.single";
         String SUCCESS_MULTIPLE = "commands.galacticraft.oxygen.set.multiple";
@@ -154,6 +165,7 @@ interface Config {
         String WIRES = "config.galacticraft.energy.wires";
         String WIRE_ENERGY_TRANSFER_LIMIT = "config.galacticraft.energy.wires.transfer_limit";
         String HEAVY_WIRE_ENERGY_TRANSFER_LIMIT = "config.galacticraft.energy.wires.heavy_transfer_limit";
+        String BATCHED_WIRE_SETTLEMENT = "config.galacticraft.energy.wires.batched_settlement";
 
         String MACHINES = "config.galacticraft.energy.machines";
         String ENERGY_STORAGE_SIZE = "config.galacticraft.energy.machines.energy_storage_size";
@@ -171,6 +183,8 @@ interface Config {
         String OXYGEN_SEALER_ENERGY_CONSUMPTION_RATE = "config.galacticraft.energy.machines.oxygen_sealer_energy_consumption_rate";
         String OXYGEN_SEALER_OXYGEN_CONSUMPTION_RATE = "config.galacticraft.energy.machines.oxygen_sealer_oxygen_consumption_rate";
         String MAX_SEALING_POWER = "config.galacticraft.machines.max_sealing_power";
+        String ASYNC_SEALING = "config.galacticraft.machines.async_sealing";
+        String MULTI_FLUID_PIPES = "config.galacticraft.machines.multi_fluid_pipes";
         String REFINERY_ENERGY_CONSUMPTION_RATE = "config.galacticraft.energy.machines.refinery_energy_consumption_rate";
         String FUEL_LOADER_ENERGY_CONSUMPTION_RATE = "config.galacticraft.energy.machines.fuel_loader_energy_consumption_rate";
         String FOOD_CANNER_ENERGY_CONSUMPTION_RATE = "config.galacticraft.energy.machines.food_canner_energy_consumption_rate";
@@ -29,14 +29,12 @@
 import dev.galacticraft.api.perlin.generator.Billowed;
 import dev.galacticraft.api.perlin.generator.Gradient;
 import dev.galacticraft.api.vector.BlockVec3;
+import dev.galacticraft.mod.attachments.GCAttachments;
 import dev.galacticraft.mod.content.GCBlocks;
 import dev.galacticraft.mod.world.gen.base.MapGenAbandonedBase;
-import net.minecraft.client.Minecraft;
+import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
-import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.ListTag;
-import net.minecraft.nbt.NbtIo;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
@@ -53,6 +51,7 @@
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraft.world.level.levelgen.GenerationStep;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
@@ -60,28 +59,23 @@
 import net.minecraft.world.level.levelgen.blending.Blender;
 import net.minecraft.world.level.storage.DimensionDataStorage;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
-import static dev.galacticraft.impl.internal.fabric.GalacticraftAPI.currentWorldSaveDirectory;
-import static dev.galacticraft.mod.world.gen.custom.AsteroidSaveData.saveDataID;
-
-
+/**
+ * Generates the asteroid belt. Chunks are generated concurrently on the worldgen threads,
+ * so everything that is needed to generate a chunk is kept local to that chunk, and the shared noise modules are only read.
+ */
 public class AsteroidChunkGenerator extends ChunkGenerator {
 
     //from WorldAsteroidProvider
-    private HashSet<AsteroidData> asteroids = new HashSet<>();
-    private boolean dataNotLoaded = true;
-    private AsteroidSaveData datafile;
+    private volatile @Nullable AsteroidSaveData saveData;
     private double solarMultiplier = -1D;
 
-    private int largeCount = 0;
-    private final Random rand;
     private final NoiseModule asteroidDensity;
+    private final AsteroidPlacementIndex placements;
     private final NoiseModule asteroidTurbulance;
     private final ResourceKey<Level> dimensionKey;
 
@@ -96,17 +90,17 @@ public class AsteroidChunkGenerator extends ChunkGenerator {
     private static final int CHUNK_SIZE_Y = 384;
     private static final int CHUNK_SIZE_Z = 16;
 
-    private static final int MAX_ASTEROID_RADIUS = 25;
-    private static final int MIN_ASTEROID_RADIUS = 5;
+    static final int MAX_ASTEROID_RADIUS = 25;
+    static final int MIN_ASTEROID_RADIUS = 5;
 
-    private static final int MAX_ASTEROID_SKEW = 8;
+    static final int MAX_ASTEROID_SKEW = 8;
 
     //MIN_ASTEROID_Y is -64 + 48
-    private static final int MIN_ASTEROID_Y = -16;
+    static final int MIN_ASTEROID_Y = -16;
     //MAX_ASTEROID_Y is 384 - 64 - 48
-    private static final int MAX_ASTEROID_Y = AsteroidChunkGenerator.CHUNK_SIZE_Y - 64 - 48;
+    static final int MAX_ASTEROID_Y = AsteroidChunkGenerator.CHUNK_SIZE_Y - 64 - 48;
     //default is 800
-    private static final int ASTEROID_CHANCE = 800;
+    static final int ASTEROID_CHANCE = 800;
     private static final int ASTEROID_CORE_CHANCE = 2; //1 / n chance per asteroid
     private static final int ASTEROID_SHELL_CHANCE = 2; //1 / n chance per asteroid
 
@@ -121,10 +115,12 @@ public class AsteroidChunkGenerator extends ChunkGenerator {
     private static final int FADE_BLOCK_CHANCE = 5; //1 / n chance of a block being in the fade zone
 
     private static final int NOISE_OFFSET_SIZE = 256;
+    private static final float TURBULENCE_AMPLITUDE = 0.5F;
+    // Single octave gradient noise stays within twice its amplitude, with some room for rounding
+    private static final float MAX_TURBULENCE = TURBULENCE_AMPLITUDE * 2 + 0.001F;
+    // The frequency of the skew noise along its own axis. The frequency along the other axes depends on the size of the asteroid
+    private static final float SKEW_FREQUENCY = 0.005F;
 
-    private static HashSet<BlockVec3> chunksDone = new HashSet<BlockVec3>();
-    private int largeAsteroidsLastChunkX;
-    private int largeAsteroidsLastChunkZ;
     private final MapGenAbandonedBase dungeonGenerator = new MapGenAbandonedBase();
 
     public static final MapCodec<AsteroidChunkGenerator> CODEC = RecordCodecBuilder.mapCodec(instance ->
@@ -138,27 +134,26 @@ public class AsteroidChunkGenerator extends ChunkGenerator {
     public AsteroidChunkGenerator(BiomeSource biomeSource, ResourceKey<Level> dimensionKey, long par2) {
         super(biomeSource);
         this.dimensionKey = dimensionKey;
-        this.rand = new Random(par2);
+        Random rand = new Random(par2);
 
-        this.asteroidDensity = new Billowed(this.rand.nextLong(), 2, 0.25F);
+        this.asteroidDensity = new Billowed(rand.nextLong(), 2, 0.25F);
         this.asteroidDensity.setFrequency(.009F);
         this.asteroidDensity.amplitude = 0.6F;
+        this.placements = new AsteroidPlacementIndex(this.asteroidDensity);
 
-        this.asteroidTurbulance = new Gradient(this.rand.nextLong(), 1, 0.2F);
+        this.asteroidTurbulance = new Gradient(rand.nextLong(), 1, 0.2F);
         this.asteroidTurbulance.setFrequency(.08F);
-        this.asteroidTurbulance.amplitude = 0.5F;
+        this.asteroidTurbulance.amplitude = AsteroidChunkGenerator.TURBULENCE_AMPLITUDE;
 
-        this.asteroidSkewX = new Gradient(this.rand.nextLong(), 1, 1);
+        // The skew noise keeps a frequency of 1, the coordinates are scaled when the noise is sampled instead
+        this.asteroidSkewX = new Gradient(rand.nextLong(), 1, 1);
         this.asteroidSkewX.amplitude = AsteroidChunkGenerator.MAX_ASTEROID_SKEW;
-        this.asteroidSkewX.frequencyX = 0.005F;
 
-        this.asteroidSkewY = new Gradient(this.rand.nextLong(), 1, 1);
+        this.asteroidSkewY = new Gradient(rand.nextLong(), 1, 1);
         this.asteroidSkewY.amplitude = AsteroidChunkGenerator.MAX_ASTEROID_SKEW;
-        this.asteroidSkewY.frequencyY = 0.005F;
 
-        this.asteroidSkewZ = new Gradient(this.rand.nextLong(), 1, 1);
+        this.asteroidSkewZ = new Gradient(rand.nextLong(), 1, 1);
         this.asteroidSkewZ.amplitude = AsteroidChunkGenerator.MAX_ASTEROID_SKEW;
-        this.asteroidSkewZ.frequencyZ = 0.005F;
 
         this.coreHandler = new SpecialAsteroidBlockHandler();
         this.coreHandler.addBlock(new SpecialAsteroidBlock(GCBlocks.ASTEROID_ROCK_2, 5, 0.3));
@@ -189,42 +184,24 @@ public AsteroidChunkGenerator(BiomeSource biomeSource, ResourceKey<Level> dimens
         this.shellHandler.addBlock(new SpecialAsteroidBlock(GCBlocks.DENSE_ICE, 1, 0.15));
     }
 
-    private ChunkAccess generateChunkData(Blender blender, RandomState randomState, StructureManager structureManager, ChunkAccess chunkAccess) {
-        int heightLimit = chunkAccess.getHeight();
+    private ChunkAccess generateChunkData(ChunkAccess chunkAccess) {
         int chunkX = chunkAccess.getPos().x;
         int chunkZ = chunkAccess.getPos().z;
 
-        this.largeCount = 0;
         final Random random = new Random();
-        final int asteroidChance = AsteroidChunkGenerator.ASTEROID_CHANCE;
         final int rangeY = AsteroidChunkGenerator.MAX_ASTEROID_Y - AsteroidChunkGenerator.MIN_ASTEROID_Y;
         final int rangeSize = AsteroidChunkGenerator.MAX_ASTEROID_RADIUS - AsteroidChunkGenerator.MIN_ASTEROID_RADIUS;
 
         //If asteroid centre is nearby might need to generate some asteroid parts in this chunk
-        for (int i = chunkX - 3; i < chunkX + 3; i++) {
-            int minX = i * 16;
-            int maxX = minX + AsteroidChunkGenerator.CHUNK_SIZE_X;
-            for (int k = chunkZ - 3; k < chunkZ + 3; k++) {
-                int minZ = k * 16;
-                int maxZ = minZ + AsteroidChunkGenerator.CHUNK_SIZE_Z;
-
-                //something about redundant code in gc4's code
-                for (int x = minX; x < maxX; x += 2) {
-                    for (int z = minZ; z < maxZ; z += 2) {
-                        //the next line is called 3136 times per chunk generated apparently? saying something about slow getNoise
-                        if (this.randFromPointPos(x, z) < (this.asteroidDensity.getNoise(x, z) + 0.4) / asteroidChance) {
-                            random.setSeed(x + z * 3067);
-                            int y = random.nextInt(rangeY) + AsteroidChunkGenerator.MIN_ASTEROID_Y;
-                            int size = random.nextInt(rangeSize) + AsteroidChunkGenerator.MIN_ASTEROID_RADIUS;
-
-                            //generate the parts of the asteroid which are in this chunk
-                            this.generateAsteroid(random, x, y, z, chunkX << 4, chunkZ << 4, size, chunkAccess);
-                            this.largeCount++;
-                        }
-                    }
-                }
-            }
-        }
+        this.placements.forEachAsteroid(chunkX, chunkZ, (x, y, z, size) -> {
+            // The blocks of the asteroid are picked using the same random that placed it
+            random.setSeed(x + z * 3067);
+            random.nextInt(rangeY);
+            random.nextInt(rangeSize);
+
+            //generate the parts of the asteroid which are in this chunk
+            this.generateAsteroid(random, x, y, z, chunkX << 4, chunkZ << 4, size, chunkAccess);
+        });
 
         return chunkAccess;
     }
@@ -265,7 +242,7 @@ private void generateAsteroid(Random rand, int asteroidX, int asteroidY, int ast
         final float noiseOffsetX = this.randFromPoint(asteroidX, asteroidY, asteroidZ) * AsteroidChunkGenerator.NOISE_OFFSET_SIZE + chunkX;
         final float noiseOffsetY = this.randFromPoint(asteroidX * 7, asteroidY * 11, asteroidZ * 13) * AsteroidChunkGenerator.NOISE_OFFSET_SIZE;
         final float noiseOffsetZ = this.randFromPoint(asteroidX * 17, asteroidY * 23, asteroidZ * 29) * AsteroidChunkGenerator.NOISE_OFFSET_SIZE + chunkZ;
-        this.setOtherAxisFrequency(1F / (size * 2F / 2F));
+        final float frequency = 1F / (size * 2F / 2F);
 
         float[] sizeXArray = new float[ySize * zSize];
         float[] sizeZArray = new float[xSize * ySize];
@@ -275,19 +252,15 @@ private void generateAsteroid(Random rand, int asteroidX, int asteroidY, int ast
             int xx = x * zSize;
             float xxx = x + noiseOffsetX;
             for (int z = 0; z < zSize; z++) {
-                sizeYArray[xx + z] = this.asteroidSkewY.getNoise(xxx, z + noiseOffsetZ);
+                sizeYArray[xx + z] = this.asteroidSkewY.getNoise(xxx * frequency, (z + noiseOffsetZ) * SKEW_FREQUENCY);
             }
         }
 
-        AsteroidData asteroidData = new AsteroidData(sizeYArray, xMin, zMin, xMax, zMax, zSize, size, asteroidX, asteroidY, asteroidZ);
-        this.largeAsteroidsLastChunkX = chunkX;
-        this.largeAsteroidsLastChunkZ = chunkZ;
-
         for (int y = 0; y < ySize; y++) {
             int yy = y * zSize;
             float yyy = y + noiseOffsetY;
             for (int z = 0; z < zSize; z++) {
-                sizeXArray[yy + z] = this.asteroidSkewX.getNoise(yyy, z + noiseOffsetZ);
+                sizeXArray[yy + z] = this.asteroidSkewX.getNoise(yyy * SKEW_FREQUENCY, (z + noiseOffsetZ) * frequency);
             }
         }
 
@@ -295,13 +268,11 @@ private void generateAsteroid(Random rand, int asteroidX, int asteroidY, int ast
             int xx = x * ySize;
             float xxx = x + noiseOffsetX;
             for (int y = 0; y < ySize; y++) {
-                sizeZArray[xx + y] = this.asteroidSkewZ.getNoise(xxx, y + noiseOffsetY);
+                sizeZArray[xx + y] = this.asteroidSkewZ.getNoise(xxx * frequency, (y + noiseOffsetY) * frequency);
             }
         }
 
         double shellThickness = 0;
-        int terrainY = 0;
-        int terrainYY = 0;
 
         BlockState asteroidShell = null;
         if (shell != null) {
@@ -313,21 +284,36 @@ private void generateAsteroid(Random rand, int asteroidX, int asteroidY, int ast
         BlockState asteroidRock0 = GCBlocks.ASTEROID_ROCK.defaultBlockState();
         BlockState asteroidRock1 = GCBlocks.ASTEROID_ROCK_1.defaultBlockState();
 
+        // The blocks are written straight into the sections, so the worldgen heightmaps are updated here like ProtoChunk#setBlockState would
+        Heightmap oceanFloor = primer.getOrCreateHeightmapUnprimed(Heightmap.Types.OCEAN_FLOOR_WG);
+        Heightmap worldSurface = primer.getOrCreateHeightmapUnprimed(Heightmap.Types.WORLD_SURFACE_WG);
+        final int minSection = primer.getMinSection();
+        final int sectionCount = primer.getSectionsCount();
+        // Blocks further out than this can't be pulled into the asteroid by the turbulence
+        final float maxDistance = 1 + AsteroidChunkGenerator.MAX_TURBULENCE;
+
         for (int x = xMax - 1; x >= xMin; x--) {
             int indexXY = (x - xMin) * ySize - yMin;
             int indexXZ = (x - xMin) * zSize - zMin;
             int distanceX = asteroidX - (x + chunkX);
-            int indexBaseX = x * AsteroidChunkGenerator.CHUNK_SIZE_Y << 4;
             float xx = x + chunkX;
 
             for (int z = zMin; z < zMax; z++) {
                 float sizeY = size + sizeYArray[indexXZ + z];
                 sizeY *= sizeY;
                 int distanceZ = asteroidZ - (z + chunkZ);
-                int indexBase = indexBaseX | z * AsteroidChunkGenerator.CHUNK_SIZE_Y;
                 float zz = z + chunkZ;
 
-                for (int y = yMin; y < yMax; y++) {
+                // The vertical part of the distance alone already rules out the blocks too far above or below the centre
+                int reachY = (int) Math.sqrt(maxDistance * sizeY) + 1;
+                int columnMin = Math.max(yMin, asteroidY - reachY);
+                int columnMax = Math.min(yMax, asteroidY + reachY + 1);
+                int sectionIndex = Integer.MIN_VALUE;
+                LevelChunkSection section = null;
+                int top = Integer.MIN_VALUE;
+                BlockState topState = null;
+
+                for (int y = columnMin; y < columnMax; y++) {
                     float dSizeX = distanceX / (size + sizeXArray[(y - yMin) * zSize + z - zMin]);
                     float dSizeZ = distanceZ / (size + sizeZArray[indexXY + y]);
                     dSizeX *= dSizeX;
@@ -335,32 +321,35 @@ private void generateAsteroid(Random rand, int asteroidX, int asteroidY, int ast
                     int distanceY = asteroidY - y;
                     distanceY *= distanceY;
                     float distance = dSizeX + distanceY / sizeY + dSizeZ;
-                    float distanceAbove = distance;
+                    if (!(distance <= maxDistance)) continue;
                     distance += this.asteroidTurbulance.getNoise(xx, y, zz);
 
                     if (distance <= 1) {
-                        int index = indexBase | y;
+                        BlockState state;
                         if (distance <= core.thickness) {
-                            if (rand.nextBoolean()) {
-                                primer.setBlockState(new BlockPos(x, y, z), asteroidCore, false);
-//                              blockArray[index] = core.block;
-//                              metaArray[index] = core.meta;
-                            } else {
-                                primer.setBlockState(new BlockPos(x, y, z), asteroidRock0, false);
-//                              blockArray[index] = this.ASTEROID_STONE;
-//                              metaArray[index] = this.ASTEROID_STONE_META_0;
-                            }
+                            state = rand.nextBoolean() ? asteroidCore : asteroidRock0;
                         } else if (shell != null && distance >= shellThickness) {
-                            primer.setBlockState(new BlockPos(x, y, z), asteroidShell, false);
-//                            blockArray[index] = shell.block;
-//                            metaArray[index] = shell.meta;
+                            state = asteroidShell;
                         } else {
-                            primer.setBlockState(new BlockPos(x, y, z), asteroidRock1, false);
-//                            blockArray[index] = this.ASTEROID_STONE;
-//                            metaArray[index] = this.ASTEROID_STONE_META_1;
+                            state = asteroidRock1;
+                        }
+
+                        if ((y >> 4) - minSection != sectionIndex) {
+                            sectionIndex = (y >> 4) - minSection;
+                            section = sectionIndex >= 0 && sectionIndex < sectionCount ? primer.getSection(sectionIndex) : null;
+                        }
+                        if (section != null) {
+                            section.setBlockState(x, y & 15, z, state, false);
+                            top = y;
+                            topState = state;
                         }
                     }
                 }
+
+                if (topState != null) {
+                    oceanFloor.update(x, top, z, topState);
+                    worldSurface.update(x, top, z, topState);
+                }
             }
         }
     }
@@ -390,47 +379,50 @@ public void applyCarvers(WorldGenRegion region, long seed, RandomState randomSta
 
         int x = chunkX << 4;
         int z = chunkZ << 4;
-        if (!AsteroidChunkGenerator.chunksDone.add(new BlockVec3(x, 0, z))) {
+        if (chunkAccess.hasAttached(GCAttachments.SMALL_ASTEROIDS_PLACED)) {
             return;
         }
+        chunkAccess.setAttached(GCAttachments.SMALL_ASTEROIDS_PLACED, true);
 
 //        BlockFalling.fallInstantly = true;
 //        this.world.getBiome(new BlockPos(x + 16, 0, z + 16));
 //        BlockFalling.fallInstantly = false;
 
-        this.rand.setSeed(seed);
-        long var7 = this.rand.nextLong() / 2L * 2L + 1L;
-        long var9 = this.rand.nextLong() / 2L * 2L + 1L;
-        this.rand.setSeed(chunkX * var7 + chunkZ * var9 ^ seed);
+        Random rand = new Random(seed);
+        long var7 = rand.nextLong() / 2L * 2L + 1L;
+        long var9 = rand.nextLong() / 2L * 2L + 1L;
+        rand.setSeed(chunkX * var7 + chunkZ * var9 ^ seed);
 
         //50:50 chance to include small blocks each chunk
-        if (this.rand.nextBoolean()) {
+        if (rand.nextBoolean()) {
             double density = this.asteroidDensity.getNoise(chunkX * 16, chunkZ * 16) * 0.54;
             double numOfBlocks = Mth.clamp(this.randFromPoint(chunkX, chunkZ), 0.4, 1) * AsteroidChunkGenerator.MAX_BLOCKS_PER_CHUNK * density + AsteroidChunkGenerator.MIN_BLOCKS_PER_CHUNK;
-            int y0 = this.rand.nextInt(2);
+            int y0 = rand.nextInt(2);
             Block block;
             int yRange = AsteroidChunkGenerator.MAX_ASTEROID_Y - AsteroidChunkGenerator.MIN_ASTEROID_Y;
             x += 4;
             z += 4;
 
             for (int i = 0; i < numOfBlocks; i++) {
-                int y = this.rand.nextInt(yRange) + AsteroidChunkGenerator.MIN_ASTEROID_Y;
+                int y = rand.nextInt(yRange) + AsteroidChunkGenerator.MIN_ASTEROID_Y;
 
                 //50:50 chance vertically as well
                 if (y0 == (y / 16) % 2) {
-                    int px = x + this.rand.nextInt(AsteroidChunkGenerator.CHUNK_SIZE_X);
-                    int pz = z + this.rand.nextInt(AsteroidChunkGenerator.CHUNK_SIZE_Z);
+                    int px = x + rand.nextInt(AsteroidChunkGenerator.CHUNK_SIZE_X);
+                    int pz = z + rand.nextInt(AsteroidChunkGenerator.CHUNK_SIZE_Z);
 
                     block = GCBlocks.ASTEROID_ROCK;
 
-                    if (this.rand.nextInt(ILMENITE_CHANCE) == 0) {
+                    if (rand.nextInt(ILMENITE_CHANCE) == 0) {
                         block = GCBlocks.ILMENITE_ORE;
-                    } else if (this.rand.nextInt(IRON_CHANCE) == 0) {
+                    } else if (rand.nextInt(IRON_CHANCE) == 0) {
                         block = GCBlocks.MARS_IRON_ORE;
-                    } else if (this.rand.nextInt(ALUMINUM_CHANCE) == 0) {
+                    } else if (rand.nextInt(ALUMINUM_CHANCE) == 0) {
                         block = GCBlocks.ALUMINUM_ORE;
                     }
 
+                    // The large asteroids filled in by fillFromNoise take precedence over the small blocks
+                    if (!chunkAccess.getBlockState(new BlockPos(px, y, pz)).isAir()) continue;
                     chunkAccess.setBlockState(new BlockPos(px, y, pz), block.defaultBlockState(), false);
                     int count = 9;
                     if (!(chunkAccess.getBlockState(new BlockPos(px - 1, y, pz)).isAir())) {
@@ -447,11 +439,7 @@ public void applyCarvers(WorldGenRegion region, long seed, RandomState randomSta
             }
         }
 
-        if (this.largeAsteroidsLastChunkX != chunkX || this.largeAsteroidsLastChunkZ != chunkZ) {
-            this.generateChunkData(null, null, null, chunkAccess);
-        }
-
-        this.rand.setSeed(chunkX * var7 + chunkZ * var9 ^ seed);
+        rand.setSeed(chunkX * var7 + chunkZ * var9 ^ seed);
 
 //         // Update all block lighting
 //         for (int xx = 0; xx < 16; xx++) {
@@ -486,19 +474,7 @@ public int getGenDepth() {
 
     @Override
     public CompletableFuture<ChunkAccess> fillFromNoise(Blender blender, RandomState noiseConfig, StructureManager structureAccessor, ChunkAccess chunk) {
-        CompletableFuture<ChunkAccess> future = new CompletableFuture<>();
-
-        Minecraft.getInstance().submit(() -> {
-            try {
-                // This operation will now run on Minecraft's main thread
-                ChunkAccess result = generateChunkData(blender, noiseConfig, structureAccessor, chunk);
-                future.complete(result);
-            } catch (Exception e) {
-                future.completeExceptionally(e);
-            }
-        });
-
-        return future;
+        return CompletableFuture.supplyAsync(Util.wrapThreadWithTaskName("wgen_fill_noise", () -> this.generateChunkData(chunk)), Util.backgroundExecutor());
     }
 
     public void resetBase() {
@@ -531,24 +507,6 @@ public void addDebugScreenInfo(List<String> list, RandomState randomState, Block
 
     }
 
-    private float randFromPointPos(int x, int z) {
-        int n = x + z * 57;
-        n ^= n << 13;
-        n = n * (n * n * 15731 + 789221) + 1376312589 & 0x3fffffff;
-        return 1.0F - n / 1073741824.0F;
-    }
-
-    private final void setOtherAxisFrequency(float frequency) {
-        this.asteroidSkewX.frequencyY = frequency;
-        this.asteroidSkewX.frequencyZ = frequency;
-
-        this.asteroidSkewY.frequencyX = frequency;
-        this.asteroidSkewY.frequencyZ = frequency;
-
-        this.asteroidSkewZ.frequencyX = frequency;
-        this.asteroidSkewZ.frequencyY = frequency;
-    }
-
     private float randFromPoint(int x, int y, int z) {
         int n = x + z * 57 + y * 571;
         n ^= n << 13;
@@ -563,138 +521,17 @@ private float randFromPoint(int x, int z) {
         return 1.0F - n / 1073741824.0F;
     }
 
-    public void addAsteroid(int x, int y, int z, int size, int core) {
-        AsteroidData coords = new AsteroidData(x, y, z, size, core);
-        if (!this.asteroids.contains(coords)) {
-            if (this.dataNotLoaded) {
-                this.loadAsteroidSavedData();
-            }
-            if (!this.asteroids.contains(coords)) {
-                this.addToNBT(this.datafile.datacompound, coords);
-                this.asteroids.add(coords);
-            }
-        }
-    }
-
-    private void addToNBT(CompoundTag nbt, AsteroidData coords) {
-        ListTag coordList = nbt.getList("coords", 10);
-        CompoundTag tag = new CompoundTag();
-        coords.writeToNBT(tag);
-        coordList.add(tag);
-        nbt.put("coords", coordList);
-        this.datafile.setDirty();
-        Path dataPath = Path.of(currentWorldSaveDirectory.toString(), saveDataID);
-        Path dataFile = dataPath.resolve("data.dat");
-        this.setData(dataFile, datafile);
+    /**
+     * Sets where the generated asteroids are saved. Called when the level loads, before any chunk is generated.
+     */
+    public void setSaveData(AsteroidSaveData saveData) {
+        this.saveData = saveData;
     }
 
-
-    private void writeToNBT(CompoundTag nbt) {
-        ListTag coordList = new ListTag();
-        for (AsteroidData coords : this.asteroids) {
-            CompoundTag tag = new CompoundTag();
-            coords.writeToNBT(tag);
-            coordList.add(tag);
-        }
-        nbt.put("coords", coordList);
-        this.datafile.setDirty();
-        Path dataPath = Path.of(currentWorldSaveDirectory.toString(), saveDataID);
-        Path dataFile = dataPath.resolve("data.dat");
-        this.setData(dataFile, datafile);
-    }
-
-    private static class AsteroidData {
-        public float[] sizeYArray;
-        public int xMinArray;
-        public int zMinArray;
-        public int xMax;
-        public int zMax;
-        public int zSizeArray;
-        public int asteroidSizeArray;
-        public int asteroidXArray;
-        public int asteroidYArray;
-        public int asteroidZArray;
-
-        public AsteroidData(float[] sizeYArray2, int xMin, int zMin, int xmax, int zmax, int zSize, int size, int asteroidX, int asteroidY, int asteroidZ) {
-            this.sizeYArray = sizeYArray2.clone();
-            this.xMinArray = xMin;
-            this.zMinArray = zMin;
-            this.xMax = xmax;
-            this.zMax = zmax;
-            this.zSizeArray = zSize;
-            this.asteroidSizeArray = size;
-            this.asteroidXArray = asteroidX;
-            this.asteroidYArray = asteroidY;
-            this.asteroidZArray = asteroidZ;
-        }
-
-        protected BlockVec3 centre;
-        protected int sizeAndLandedFlag = 15;
-        protected int coreAndSpawnedFlag = -2;
-
-        public AsteroidData(int x, int y, int z) {
-            this.centre = new BlockVec3(x, y, z);
-        }
-
-        public AsteroidData(int x, int y, int z, int size, int core) {
-            this.centre = new BlockVec3(x, y, z);
-            this.sizeAndLandedFlag = size;
-            this.coreAndSpawnedFlag = core;
-        }
-
-        public AsteroidData(BlockVec3 bv) {
-            this.centre = bv;
-        }
-
-        @Override
-        public int hashCode() {
-            if (this.centre != null) {
-                return this.centre.hashCode();
-            } else {
-                return 0;
-            }
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (o instanceof AsteroidData) {
-                BlockVec3 vector = ((AsteroidData) o).centre;
-                return this.centre.x == vector.x && this.centre.y == vector.y && this.centre.z == vector.z;
-            }
-
-            if (o instanceof BlockVec3) {
-                BlockVec3 vector = (BlockVec3) o;
-                return this.centre.x == vector.x && this.centre.y == vector.y && this.centre.z == vector.z;
-            }
-
-            return false;
-        }
-
-        public CompoundTag writeToNBT(CompoundTag tag) {
-            tag.putInt("x", this.centre.x);
-            tag.putInt("y", this.centre.y);
-            tag.putInt("z", this.centre.z);
-            tag.putInt("coreAndFlag", this.coreAndSpawnedFlag);
-            tag.putInt("sizeAndFlag", this.sizeAndLandedFlag);
-
-            return tag;
-        }
-
-        public static AsteroidData readFromNBT(CompoundTag tag) {
-            BlockVec3 tempVector = new BlockVec3();
-            tempVector.x = tag.getInt("x");
-            tempVector.y = tag.getInt("y");
-            tempVector.z = tag.getInt("z");
-
-            AsteroidData roid = new AsteroidData(tempVector);
-            if (tag.hasUUID("coreAndFlag")) {
-                roid.coreAndSpawnedFlag = tag.getInt("coreAndFlag");
-            }
-            if (tag.hasUUID("sizeAndFlag")) {
-                roid.sizeAndLandedFlag = tag.getInt("sizeAndFlag");
-            }
-
-            return roid;
+    public void addAsteroid(int x, int y, int z, int size, int core) {
+        AsteroidSaveData saveData = this.saveData;
+        if (saveData != null) {
+            saveData.addAsteroid(x, y, z, size, core);
         }
     }
 
@@ -702,122 +539,9 @@ private int getIndex(int x, int y, int z) {
         return x * AsteroidChunkGenerator.CHUNK_SIZE_Y * 16 | z * AsteroidChunkGenerator.CHUNK_SIZE_Y | y;
     }
 
-    public void loadAsteroidSavedData() {
-        Path dataPath = Path.of(currentWorldSaveDirectory.toString(), saveDataID);
-        Path dataFile = dataPath.resolve("data.dat");
-
-        this.datafile = this.loadData(dataFile);
-
-        if (this.datafile == null) {
-            if (!Files.exists(dataFile)) {
-                try {
-                    Files.createDirectories(dataPath);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-                try {
-                    Files.createFile(dataFile);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            this.datafile = new AsteroidSaveData("");
-            this.writeToNBT(this.datafile.datacompound);
-            this.setData(dataFile, this.datafile);
-        } else {
-            this.readFromNBT(this.datafile.datacompound);
-        }
-
-        this.dataNotLoaded = false;
-
-    }
-
-    public void setData(Path filePath, AsteroidSaveData data) {
-        try {
-            NbtIo.write(data.datacompound, filePath);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    public AsteroidSaveData loadData(Path filePath) {
-        if (Files.exists(filePath)) {
-            CompoundTag tag;
-            try {
-                tag = NbtIo.read(filePath);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-            AsteroidSaveData saveData = new AsteroidSaveData("");
-            saveData.datacompound = tag;
-            return saveData;
-        } else {
-            return null;
-        }
-    }
-
-
-    private void readFromNBT(CompoundTag nbt) {
-        ListTag coordList = nbt.getList("coords", 10);
-        if (coordList.size() > 0) {
-            for (int j = 0; j < coordList.size(); j++) {
-                CompoundTag tag1 = coordList.getCompound(j);
-
-                if (tag1 != null) {
-                    this.asteroids.add(AsteroidData.readFromNBT(tag1));
-                }
-            }
-        }
-    }
-
-    public BlockVec3 isLargeAsteroidAt(int x0, int z0) {
-        int xToCheck;
-        int zToCheck;
-        for (int i0 = 0; i0 <= 32; i0++) {
-            for (int i1 = -i0; i1 <= i0; i1++) {
-                xToCheck = (x0 >> 4) + i0;
-                zToCheck = (z0 >> 4) + i1;
-
-                if (isLargeAsteroidAt0(xToCheck * 16, zToCheck * 16)) {
-                    return new BlockVec3(xToCheck * 16, 0, zToCheck * 16);
-                }
-
-                xToCheck = (x0 >> 4) + i0;
-                zToCheck = (z0 >> 4) - i1;
-
-                if (isLargeAsteroidAt0(xToCheck * 16, zToCheck * 16)) {
-                    return new BlockVec3(xToCheck * 16, 0, zToCheck * 16);
-                }
-
-                xToCheck = (x0 >> 4) - i0;
-                zToCheck = (z0 >> 4) + i1;
-
-                if (isLargeAsteroidAt0(xToCheck * 16, zToCheck * 16)) {
-                    return new BlockVec3(xToCheck * 16, 0, zToCheck * 16);
-                }
-
-                xToCheck = (x0 >> 4) - i0;
-                zToCheck = (z0 >> 4) - i1;
-
-                if (isLargeAsteroidAt0(xToCheck * 16, zToCheck * 16)) {
-                    return new BlockVec3(xToCheck * 16, 0, zToCheck * 16);
-                }
-            }
-        }
-
-        return null;
-    }
-
-    private boolean isLargeAsteroidAt0(int x0, int z0) {
-        for (int x = x0; x < x0 + AsteroidChunkGenerator.CHUNK_SIZE_X; x += 2) {
-            for (int z = z0; z < z0 + AsteroidChunkGenerator.CHUNK_SIZE_Z; z += 2) {
-                if ((Math.abs(this.randFromPoint(x, z)) < (this.asteroidDensity.getNoise(x, z) + 0.4) / AsteroidChunkGenerator.ASTEROID_CHANCE)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+    public @Nullable BlockVec3 isLargeAsteroidAt(int x0, int z0) {
+        AsteroidSaveData saveData = this.saveData;
+        return saveData == null ? null : saveData.isLargeAsteroidAt(x0, z0);
     }
 
 }
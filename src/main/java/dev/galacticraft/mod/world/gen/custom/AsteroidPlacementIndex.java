@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.world.gen.custom;
+
+import dev.galacticraft.api.perlin.NoiseModule;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.Random;
+
+/**
+ * Caches where the large asteroids of the asteroid belt are placed.
+ * The placements are computed once per cell of 32x32 chunks, and the most recently used cells are kept,
+ * so generating a chunk only has to look up the asteroids near it instead of sampling the density noise again.
+ * Safe to use from several worldgen threads at once.
+ */
+public class AsteroidPlacementIndex {
+    private static final int CELL_SHIFT = 5;
+    private static final int CELL_CHUNKS = 1 << CELL_SHIFT;
+    private static final int CELL_MASK = CELL_CHUNKS - 1;
+    private static final int MAX_CACHED_CELLS = 64;
+    // The chunks around the generated chunk that asteroids can reach into it from, relative to the chunk
+    private static final int SEARCH_MIN = -3;
+    private static final int SEARCH_MAX = 2;
+
+    private final NoiseModule asteroidDensity;
+    private final Long2ObjectLinkedOpenHashMap<Cell> cells = new Long2ObjectLinkedOpenHashMap<>();
+
+    public AsteroidPlacementIndex(NoiseModule asteroidDensity) {
+        this.asteroidDensity = asteroidDensity;
+    }
+
+    /**
+     * Visits every large asteroid that may have blocks in the given chunk, in the order they should be generated in.
+     *
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @param consumer the consumer to pass the asteroids to
+     */
+    public void forEachAsteroid(int chunkX, int chunkZ, AsteroidConsumer consumer) {
+        int minX = chunkX << 4;
+        int minZ = chunkZ << 4;
+        Cell cell = null;
+        int cellX = 0;
+        int cellZ = 0;
+        for (int i = chunkX + SEARCH_MIN; i <= chunkX + SEARCH_MAX; i++) {
+            for (int k = chunkZ + SEARCH_MIN; k <= chunkZ + SEARCH_MAX; k++) {
+                if (cell == null || i >> CELL_SHIFT != cellX || k >> CELL_SHIFT != cellZ) {
+                    cellX = i >> CELL_SHIFT;
+                    cellZ = k >> CELL_SHIFT;
+                    cell = this.getCell(cellX, cellZ);
+                }
+
+                int index = (i & CELL_MASK) << CELL_SHIFT | k & CELL_MASK;
+                int[] offsets = cell.offsets();
+                int[] asteroids = cell.asteroids();
+                for (int j = offsets[index]; j < offsets[index + 1]; j += 4) {
+                    int x = asteroids[j];
+                    int z = asteroids[j + 2];
+                    int size = asteroids[j + 3];
+                    int reach = size + AsteroidChunkGenerator.MAX_ASTEROID_SKEW + 2;
+                    if (x + reach > minX && x - reach < minX + 16 && z + reach > minZ && z - reach < minZ + 16) {
+                        consumer.accept(x, asteroids[j + 1], z, size);
+                    }
+                }
+            }
+        }
+    }
+
+    private Cell getCell(int cellX, int cellZ) {
+        long key = ChunkPos.asLong(cellX, cellZ);
+        synchronized (this.cells) {
+            Cell cell = this.cells.getAndMoveToFirst(key);
+            if (cell != null) return cell;
+        }
+
+        // Computed outside the lock so that other threads can keep using the cached cells in the meantime
+        Cell cell = this.computeCell(cellX, cellZ);
+        synchronized (this.cells) {
+            Cell existing = this.cells.getAndMoveToFirst(key);
+            if (existing != null) return existing;
+            this.cells.putAndMoveToFirst(key, cell);
+            if (this.cells.size() > MAX_CACHED_CELLS) {
+                this.cells.removeLast();
+            }
+        }
+        return cell;
+    }
+
+    private Cell computeCell(int cellX, int cellZ) {
+        final Random random = new Random();
+        final int rangeY = AsteroidChunkGenerator.MAX_ASTEROID_Y - AsteroidChunkGenerator.MIN_ASTEROID_Y;
+        final int rangeSize = AsteroidChunkGenerator.MAX_ASTEROID_RADIUS - AsteroidChunkGenerator.MIN_ASTEROID_RADIUS;
+        int[] offsets = new int[CELL_CHUNKS * CELL_CHUNKS + 1];
+        IntArrayList asteroids = new IntArrayList();
+
+        for (int i = 0; i < CELL_CHUNKS; i++) {
+            int minX = (cellX << CELL_SHIFT | i) << 4;
+            for (int k = 0; k < CELL_CHUNKS; k++) {
+                int minZ = (cellZ << CELL_SHIFT | k) << 4;
+                for (int x = minX; x < minX + 16; x += 2) {
+                    for (int z = minZ; z < minZ + 16; z += 2) {
+                        if (randFromPointPos(x, z) < (this.asteroidDensity.getNoise(x, z) + 0.4) / AsteroidChunkGenerator.ASTEROID_CHANCE) {
+                            random.setSeed(x + z * 3067);
+                            asteroids.add(x);
+                            asteroids.add(random.nextInt(rangeY) + AsteroidChunkGenerator.MIN_ASTEROID_Y);
+                            asteroids.add(z);
+                            asteroids.add(random.nextInt(rangeSize) + AsteroidChunkGenerator.MIN_ASTEROID_RADIUS);
+                        }
+                    }
+                }
+                offsets[(i << CELL_SHIFT) + k + 1] = asteroids.size();
+            }
+        }
+
+        return new Cell(offsets, asteroids.toIntArray());
+    }
+
+    private static float randFromPointPos(int x, int z) {
+        int n = x + z * 57;
+        n ^= n << 13;
+        n = n * (n * n * 15731 + 789221) + 1376312589 & 0x3fffffff;
+        return 1.0F - n / 1073741824.0F;
+    }
+
+    /**
+     * The asteroids of a cell, grouped by chunk. The asteroids of a chunk are stored as {@code x, y, z, size}
+     * between {@code offsets[chunk]} and {@code offsets[chunk + 1]}.
+     */
+    private record Cell(int[] offsets, int[] asteroids) {
+    }
+
+    @FunctionalInterface
+    public interface AsteroidConsumer {
+        void accept(int x, int y, int z, int size);
+    }
+}
@@ -22,33 +22,190 @@
 
 package dev.galacticraft.mod.world.gen.custom;
 
+import dev.galacticraft.api.vector.BlockVec3;
+import dev.galacticraft.mod.Constant;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.level.storage.DimensionDataStorage;
+import net.minecraft.world.level.storage.LevelResource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Saves the large asteroids that have been generated in a level, grouped by region of 32x32 chunks.
+ * Asteroids are added from the worldgen threads and only written to disk when the level saves, off the server thread.
+ * The file is written next to the old one first and then moved into place, so a crash never leaves it half written.
+ */
 public class AsteroidSaveData extends SavedData {
+    private static final String SAVE_DATA_ID = Constant.MOD_ID + "_asteroids";
+    // Older versions rewrote this file, relative to the world directory, every time an asteroid was generated
+    private static final String LEGACY_DATA_FILE = "dimensions/galacticraft/asteroid/data/data.dat";
+    private static final SavedData.Factory<AsteroidSaveData> FACTORY = new SavedData.Factory<>(AsteroidSaveData::new, AsteroidSaveData::load, null);
+    private static final int REGION_SHIFT = 9;
+    private static final int MAX_SEARCH_CHUNKS = 32;
+
+    private final Long2ObjectOpenHashMap<List<Asteroid>> regions = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet centres = new LongOpenHashSet();
+    private CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+
+    public AsteroidSaveData() {
+    }
+
+    public static AsteroidSaveData get(ServerLevel level) {
+        DimensionDataStorage storage = level.getDataStorage();
+        AsteroidSaveData data = storage.get(FACTORY, SAVE_DATA_ID);
+        if (data == null) {
+            data = new AsteroidSaveData();
+            data.loadLegacy(level.getServer().getWorldPath(LevelResource.ROOT).resolve(LEGACY_DATA_FILE));
+            storage.set(SAVE_DATA_ID, data);
+        }
+        return data;
+    }
+
+    public synchronized void addAsteroid(int x, int y, int z, int size, int core) {
+        if (this.centres.add(BlockPos.asLong(x, y, z))) {
+            this.regions.computeIfAbsent(ChunkPos.asLong(x >> REGION_SHIFT, z >> REGION_SHIFT), k -> new ArrayList<>()).add(new Asteroid(x, y, z, size, core));
+            this.setDirty();
+        }
+    }
 
-    public static final String saveDataID = "dimensions/galacticraft/asteroid/data";
+    /**
+     * Finds the chunk of the generated asteroid closest to the given position.
+     *
+     * @param x0 the x coordinate to search from
+     * @param z0 the z coordinate to search from
+     * @return the corner of the chunk that contains the asteroid, or {@code null} if there is none within 32 chunks
+     */
+    public synchronized @Nullable BlockVec3 isLargeAsteroidAt(int x0, int z0) {
+        int chunkX = x0 >> 4;
+        int chunkZ = z0 >> 4;
+        int regionShift = REGION_SHIFT - 4;
+        Asteroid closest = null;
+        int closestDistance = MAX_SEARCH_CHUNKS + 1;
+        for (int regionX = chunkX - MAX_SEARCH_CHUNKS >> regionShift; regionX <= chunkX + MAX_SEARCH_CHUNKS >> regionShift; regionX++) {
+            for (int regionZ = chunkZ - MAX_SEARCH_CHUNKS >> regionShift; regionZ <= chunkZ + MAX_SEARCH_CHUNKS >> regionShift; regionZ++) {
+                List<Asteroid> asteroids = this.regions.get(ChunkPos.asLong(regionX, regionZ));
+                if (asteroids == null) continue;
+                for (Asteroid asteroid : asteroids) {
+                    int distance = Math.max(Math.abs((asteroid.x >> 4) - chunkX), Math.abs((asteroid.z >> 4) - chunkZ));
+                    if (distance < closestDistance) {
+                        closestDistance = distance;
+                        closest = asteroid;
+                    }
+                }
+            }
+        }
 
-    public CompoundTag datacompound;
+        return closest == null ? null : new BlockVec3(closest.x >> 4 << 4, 0, closest.z >> 4 << 4);
+    }
 
-    public AsteroidSaveData(String s) {
-        super();
-        this.datacompound = new CompoundTag();
+    private void loadLegacy(Path file) {
+        if (!Files.exists(file)) return;
+        try {
+            CompoundTag tag = NbtIo.read(file);
+            if (tag != null) {
+                this.readAsteroids(tag);
+                this.setDirty();
+            }
+        } catch (IOException e) {
+            Constant.LOGGER.error("Failed to read the legacy asteroid data", e);
+        }
     }
 
-    public void readFromNBT(CompoundTag nbt) {
-        this.datacompound = nbt.getCompound("asteroids");
+    private void readAsteroids(CompoundTag nbt) {
+        ListTag list = nbt.getList("coords", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag tag = list.getCompound(i);
+            this.addAsteroid(tag.getInt("x"), tag.getInt("y"), tag.getInt("z"), tag.getInt("sizeAndFlag"), tag.getInt("coreAndFlag"));
+        }
     }
 
-    public static AsteroidSaveData load(CompoundTag compound) {
-        String value = compound.getString("someValue");
-        return new AsteroidSaveData(value);
+    public static AsteroidSaveData load(CompoundTag nbt, HolderLookup.Provider registryLookup) {
+        AsteroidSaveData data = new AsteroidSaveData();
+        data.readAsteroids(nbt);
+        data.setDirty(false);
+        return data;
     }
 
     @Override
-    public CompoundTag save(CompoundTag nbt, HolderLookup.Provider registryLookup) {
-        nbt.put("asteroids", this.datacompound);
+    public synchronized @NotNull CompoundTag save(CompoundTag nbt, HolderLookup.Provider registryLookup) {
+        ListTag list = new ListTag();
+        for (List<Asteroid> asteroids : this.regions.values()) {
+            for (Asteroid asteroid : asteroids) {
+                CompoundTag tag = new CompoundTag();
+                tag.putInt("x", asteroid.x);
+                tag.putInt("y", asteroid.y);
+                tag.putInt("z", asteroid.z);
+                tag.putInt("coreAndFlag", asteroid.core);
+                tag.putInt("sizeAndFlag", asteroid.size);
+                list.add(tag);
+            }
+        }
+        nbt.put("coords", list);
         return nbt;
     }
+
+    @Override
+    public void save(File file, HolderLookup.Provider registries) {
+        CompoundTag tag;
+        synchronized (this) {
+            if (!this.isDirty()) return;
+            tag = new CompoundTag();
+            tag.put("data", this.save(new CompoundTag(), registries));
+            this.setDirty(false);
+        }
+        NbtUtils.addCurrentDataVersion(tag);
+
+        // Only the snapshot is taken on the server thread. The writes are chained so that an older snapshot never overwrites a newer one
+        this.pendingWrite = this.pendingWrite.thenRunAsync(() -> {
+            Path path = file.toPath();
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                NbtIo.writeCompressed(tag, temp);
+                try {
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                Constant.LOGGER.error("Could not save the asteroid data", e);
+                // Try again the next time the level saves
+                synchronized (this) {
+                    this.setDirty();
+                }
+            }
+        }, Util.ioPool());
+    }
+
+    /**
+     * Blocks until every snapshot taken by {@link #save(File, HolderLookup.Provider)} has been written to disk.
+     * Called when the server stops, so the last save is not lost when the process exits.
+     */
+    public void awaitPendingWrite() {
+        this.pendingWrite.join();
+    }
+
+    private record Asteroid(int x, int y, int z, int size, int core) {
+    }
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.gametest;
+
+import dev.galacticraft.mod.content.GCBlocks;
+import dev.galacticraft.mod.gametest.mixin.AsteroidChunkGeneratorAccessor;
+import dev.galacticraft.mod.world.gen.custom.AsteroidChunkGenerator;
+import dev.galacticraft.mod.world.gen.custom.SpecialAsteroidBlock;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.FixedBiomeSource;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.blending.Blender;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how fast the asteroid generator fills chunks with large asteroids, compared to the original per-voxel fill,
+ * which is kept here as a reference. The chunks are generated one after another into detached proto chunks,
+ * so the result is the throughput of a single worldgen thread.
+ * The test fails if the two fills don't place the same blocks, or if the generator goes over a budget that is
+ * far above the expected cost, so that only real regressions are reported.
+ */
+public class AsteroidBenchmarkTestSuite implements GalacticraftGameTest {
+    private static final int CHUNKS = 16;
+    private static final long SEED = 0x5EEDL;
+    private static final long CHUNK_BUDGET = 20_000_000L; // 20 ms
+
+    // The same as in AsteroidChunkGenerator
+    private static final int MIN_ASTEROID_Y = -16;
+    private static final int MAX_ASTEROID_Y = 384 - 64 - 48;
+    private static final int MIN_ASTEROID_RADIUS = 5;
+    private static final int MAX_ASTEROID_RADIUS = 25;
+    private static final int MAX_ASTEROID_SKEW = 8;
+    private static final int ASTEROID_SHELL_CHANCE = 2;
+    private static final int NOISE_OFFSET_SIZE = 256;
+    private static final float SKEW_FREQUENCY = 0.005F;
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "asteroid_benchmark")
+    public void asteroidFillBenchmark(GameTestHelper context) {
+        ServerLevel level = context.getLevel();
+        // Each fill gets its own generator, so that both start with the asteroid placements of the measured chunks uncached
+        AsteroidChunkGenerator legacyGenerator = createGenerator(level);
+        AsteroidChunkGenerator generator = createGenerator(level);
+
+        // Warm up both fills, so that the measurement doesn't include class loading and the first compilation
+        this.legacyFill(level, legacyGenerator, 0);
+        fill(level, generator, 0, CHUNKS);
+
+        long start = System.nanoTime();
+        List<ProtoChunk> legacyChunks = this.legacyFill(level, legacyGenerator, CHUNKS * 2);
+        long legacyTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<ProtoChunk> chunks = fill(level, generator, CHUNKS * 2, CHUNKS);
+        long time = System.nanoTime() - start;
+        long chunkTime = time / (CHUNKS * CHUNKS);
+
+        long blocks = countBlocks(chunks);
+        this.reportBenchmark(context, String.format("Asteroid fill of %s chunks: %s blocks, legacy %s ms (%s blocks/s), sections %s ms (%s blocks/s), %s us per chunk (%.2fx)",
+                CHUNKS * CHUNKS, blocks, legacyTime / 1_000_000, blocks * 1_000_000_000L / Math.max(legacyTime, 1),
+                time / 1_000_000, blocks * 1_000_000_000L / Math.max(time, 1), chunkTime / 1000, (double) legacyTime / Math.max(time, 1)));
+
+        String difference = findDifference(legacyChunks, chunks);
+        if (blocks == 0) {
+            context.fail("Expected the generator to place asteroids!");
+        } else if (difference != null) {
+            context.fail(String.format("Expected the generator to fill chunks like the legacy fill, but %s!", difference));
+        } else if (chunkTime > CHUNK_BUDGET) {
+            context.fail(String.format("Filling a chunk with asteroids took %s us!", chunkTime / 1000));
+        }
+        context.succeed();
+    }
+
+    static AsteroidChunkGenerator createGenerator(ServerLevel level) {
+        return new AsteroidChunkGenerator(new FixedBiomeSource(level.getBiome(BlockPos.ZERO)), level.dimension(), SEED);
+    }
+
+    static ProtoChunk createChunk(ServerLevel level, int x, int z) {
+        return new ProtoChunk(new ChunkPos(x, z), UpgradeData.EMPTY, level, level.registryAccess().registryOrThrow(Registries.BIOME), null);
+    }
+
+    /**
+     * Fills a square of chunks starting at the given chunk coordinates, one chunk after another.
+     */
+    static List<ProtoChunk> fill(ServerLevel level, AsteroidChunkGenerator generator, int offset, int size) {
+        List<ProtoChunk> chunks = new ArrayList<>(size * size);
+        for (int x = offset; x < offset + size; x++) {
+            for (int z = offset; z < offset + size; z++) {
+                ProtoChunk chunk = createChunk(level, x, z);
+                generator.fillFromNoise(Blender.empty(), level.getChunkSource().randomState(), level.structureManager(), chunk).join();
+                chunks.add(chunk);
+            }
+        }
+        return chunks;
+    }
+
+    static long countBlocks(List<ProtoChunk> chunks) {
+        long[] blocks = new long[1];
+        for (ProtoChunk chunk : chunks) {
+            for (LevelChunkSection section : chunk.getSections()) {
+                section.getStates().count((state, count) -> {
+                    if (!state.isAir()) blocks[0] += count;
+                });
+            }
+        }
+        return blocks[0];
+    }
+
+    /**
+     * Compares the block states and the worldgen heightmaps of two lists of chunks generated at the same positions.
+     *
+     * @return a description of the first difference, or {@code null} if the chunks are the same
+     */
+    static @Nullable String findDifference(List<ProtoChunk> expected, List<ProtoChunk> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            ProtoChunk expectedChunk = expected.get(i);
+            ProtoChunk actualChunk = actual.get(i);
+            LevelChunkSection[] expectedSections = expectedChunk.getSections();
+            LevelChunkSection[] actualSections = actualChunk.getSections();
+            for (int s = 0; s < expectedSections.length; s++) {
+                if (expectedSections[s].hasOnlyAir() && actualSections[s].hasOnlyAir()) continue;
+                for (int y = 0; y < 16; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            BlockState expectedState = expectedSections[s].getBlockState(x, y, z);
+                            BlockState actualState = actualSections[s].getBlockState(x, y, z);
+                            if (expectedState != actualState) {
+                                BlockPos pos = expectedChunk.getPos().getBlockAt(x, expectedChunk.getSectionYFromSectionIndex(s) * 16 + y, z);
+                                return String.format("%s is %s instead of %s", pos, actualState, expectedState);
+                            }
+                        }
+                    }
+                }
+            }
+            for (Heightmap.Types type : new Heightmap.Types[]{Heightmap.Types.OCEAN_FLOOR_WG, Heightmap.Types.WORLD_SURFACE_WG}) {
+                if (!Arrays.equals(expectedChunk.getOrCreateHeightmapUnprimed(type).getRawData(), actualChunk.getOrCreateHeightmapUnprimed(type).getRawData())) {
+                    return String.format("the %s heightmap of chunk %s is different", type.getSerializationKey(), expectedChunk.getPos());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fills the same square of chunks as {@link #fill} the way the generator did before the blocks were written straight
+     * into the sections: every voxel of the bounding box of an asteroid samples the turbulence,
+     * and every block is placed through {@link ChunkAccess#setBlockState}.
+     */
+    private List<ProtoChunk> legacyFill(ServerLevel level, AsteroidChunkGenerator generator, int offset) {
+        AsteroidChunkGeneratorAccessor accessor = (AsteroidChunkGeneratorAccessor) generator;
+        List<ProtoChunk> chunks = new ArrayList<>(CHUNKS * CHUNKS);
+        for (int x = offset; x < offset + CHUNKS; x++) {
+            for (int z = offset; z < offset + CHUNKS; z++) {
+                ProtoChunk chunk = createChunk(level, x, z);
+                this.legacyGenerateChunkData(accessor, chunk);
+                chunks.add(chunk);
+            }
+        }
+        return chunks;
+    }
+
+    private void legacyGenerateChunkData(AsteroidChunkGeneratorAccessor generator, ChunkAccess chunkAccess) {
+        int chunkX = chunkAccess.getPos().x;
+        int chunkZ = chunkAccess.getPos().z;
+
+        final Random random = new Random();
+        final int rangeY = MAX_ASTEROID_Y - MIN_ASTEROID_Y;
+        final int rangeSize = MAX_ASTEROID_RADIUS - MIN_ASTEROID_RADIUS;
+
+        generator.getPlacements().forEachAsteroid(chunkX, chunkZ, (x, y, z, size) -> {
+            random.setSeed(x + z * 3067);
+            random.nextInt(rangeY);
+            random.nextInt(rangeSize);
+            this.legacyGenerateAsteroid(generator, random, x, y, z, chunkX << 4, chunkZ << 4, size, chunkAccess);
+        });
+    }
+
+    private void legacyGenerateAsteroid(AsteroidChunkGeneratorAccessor generator, Random rand, int asteroidX, int asteroidY, int asteroidZ, int chunkX, int chunkZ, int size, ChunkAccess primer) {
+        SpecialAsteroidBlock core = generator.getCoreHandler().getBlock(rand, size);
+
+        SpecialAsteroidBlock shell = null;
+        if (rand.nextInt(ASTEROID_SHELL_CHANCE) == 0) {
+            shell = generator.getShellHandler().getBlock(rand, size);
+        }
+
+        final int xMin = Mth.clamp(Math.max(chunkX, asteroidX - size - MAX_ASTEROID_SKEW - 2) - chunkX, 0, 16);
+        final int zMin = Mth.clamp(Math.max(chunkZ, asteroidZ - size - MAX_ASTEROID_SKEW - 2) - chunkZ, 0, 16);
+        final int yMin = asteroidY - size - MAX_ASTEROID_SKEW - 2;
+        final int yMax = asteroidY + size + MAX_ASTEROID_SKEW + 2;
+        final int xMax = Mth.clamp(Math.min(chunkX + 16, asteroidX + size + MAX_ASTEROID_SKEW + 2) - chunkX, 0, 16);
+        final int zMax = Mth.clamp(Math.min(chunkZ + 16, asteroidZ + size + MAX_ASTEROID_SKEW + 2) - chunkZ, 0, 16);
+        final int xSize = xMax - xMin;
+        final int ySize = yMax - yMin;
+        final int zSize = zMax - zMin;
+
+        if (xSize <= 0 || ySize <= 0 || zSize <= 0) {
+            return;
+        }
+
+        final float noiseOffsetX = generator.invokeRandFromPoint(asteroidX, asteroidY, asteroidZ) * NOISE_OFFSET_SIZE + chunkX;
+        final float noiseOffsetY = generator.invokeRandFromPoint(asteroidX * 7, asteroidY * 11, asteroidZ * 13) * NOISE_OFFSET_SIZE;
+        final float noiseOffsetZ = generator.invokeRandFromPoint(asteroidX * 17, asteroidY * 23, asteroidZ * 29) * NOISE_OFFSET_SIZE + chunkZ;
+        final float frequency = 1F / (size * 2F / 2F);
+
+        float[] sizeXArray = new float[ySize * zSize];
+        float[] sizeZArray = new float[xSize * ySize];
+        float[] sizeYArray = new float[xSize * zSize];
+
+        for (int x = 0; x < xSize; x++) {
+            int xx = x * zSize;
+            float xxx = x + noiseOffsetX;
+            for (int z = 0; z < zSize; z++) {
+                sizeYArray[xx + z] = generator.getAsteroidSkewY().getNoise(xxx * frequency, (z + noiseOffsetZ) * SKEW_FREQUENCY);
+            }
+        }
+
+        for (int y = 0; y < ySize; y++) {
+            int yy = y * zSize;
+            float yyy = y + noiseOffsetY;
+            for (int z = 0; z < zSize; z++) {
+                sizeXArray[yy + z] = generator.getAsteroidSkewX().getNoise(yyy * SKEW_FREQUENCY, (z + noiseOffsetZ) * frequency);
+            }
+        }
+
+        for (int x = 0; x < xSize; x++) {
+            int xx = x * ySize;
+            float xxx = x + noiseOffsetX;
+            for (int y = 0; y < ySize; y++) {
+                sizeZArray[xx + y] = generator.getAsteroidSkewZ().getNoise(xxx * frequency, (y + noiseOffsetY) * frequency);
+            }
+        }
+
+        double shellThickness = 0;
+
+        BlockState asteroidShell = null;
+        if (shell != null) {
+            asteroidShell = shell.block.defaultBlockState();
+            shellThickness = 1.0 - shell.thickness;
+        }
+
+        BlockState asteroidCore = core.block.defaultBlockState();
+        BlockState asteroidRock0 = GCBlocks.ASTEROID_ROCK.defaultBlockState();
+        BlockState asteroidRock1 = GCBlocks.ASTEROID_ROCK_1.defaultBlockState();
+
+        for (int x = xMax - 1; x >= xMin; x--) {
+            int indexXY = (x - xMin) * ySize - yMin;
+            int indexXZ = (x - xMin) * zSize - zMin;
+            int distanceX = asteroidX - (x + chunkX);
+            float xx = x + chunkX;
+
+            for (int z = zMin; z < zMax; z++) {
+                float sizeY = size + sizeYArray[indexXZ + z];
+                sizeY *= sizeY;
+                int distanceZ = asteroidZ - (z + chunkZ);
+                float zz = z + chunkZ;
+
+                for (int y = yMin; y < yMax; y++) {
+                    float dSizeX = distanceX / (size + sizeXArray[(y - yMin) * zSize + z - zMin]);
+                    float dSizeZ = distanceZ / (size + sizeZArray[indexXY + y]);
+                    dSizeX *= dSizeX;
+                    dSizeZ *= dSizeZ;
+                    int distanceY = asteroidY - y;
+                    distanceY *= distanceY;
+                    float distance = dSizeX + distanceY / sizeY + dSizeZ;
+                    distance += generator.getAsteroidTurbulance().getNoise(xx, y, zz);
+
+                    if (distance <= 1) {
+                        if (distance <= core.thickness) {
+                            primer.setBlockState(new BlockPos(x, y, z), rand.nextBoolean() ? asteroidCore : asteroidRock0, false);
+                        } else if (shell != null && distance >= shellThickness) {
+                            primer.setBlockState(new BlockPos(x, y, z), asteroidShell, false);
+                        } else {
+                            primer.setBlockState(new BlockPos(x, y, z), asteroidRock1, false);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.gametest;
+
+import dev.galacticraft.mod.world.gen.custom.AsteroidChunkGenerator;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.levelgen.blending.Blender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AsteroidTestSuite implements GalacticraftGameTest {
+    // Spans the corners of four placement cells of 32x32 chunks
+    private static final int OFFSET = 20;
+    private static final int CHUNKS = 24;
+
+    /**
+     * Fills the same chunks once one after another and once all at the same time on the worldgen executor,
+     * each time with a new generator, so the asteroid placements are computed concurrently by the second fill.
+     * Both fills have to place exactly the same blocks.
+     */
+    @GameTest(template = EMPTY_STRUCTURE, batch = "asteroid_generation")
+    public void asteroidConcurrentFillTest(GameTestHelper context) {
+        ServerLevel level = context.getLevel();
+        List<ProtoChunk> sequential = AsteroidBenchmarkTestSuite.fill(level, AsteroidBenchmarkTestSuite.createGenerator(level), OFFSET, CHUNKS);
+
+        AsteroidChunkGenerator generator = AsteroidBenchmarkTestSuite.createGenerator(level);
+        List<ProtoChunk> concurrent = new ArrayList<>(CHUNKS * CHUNKS);
+        List<CompletableFuture<ChunkAccess>> futures = new ArrayList<>(CHUNKS * CHUNKS);
+        for (int x = OFFSET; x < OFFSET + CHUNKS; x++) {
+            for (int z = OFFSET; z < OFFSET + CHUNKS; z++) {
+                ProtoChunk chunk = AsteroidBenchmarkTestSuite.createChunk(level, x, z);
+                concurrent.add(chunk);
+                futures.add(generator.fillFromNoise(Blender.empty(), level.getChunkSource().randomState(), level.structureManager(), chunk));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        String difference = AsteroidBenchmarkTestSuite.findDifference(sequential, concurrent);
+        if (AsteroidBenchmarkTestSuite.countBlocks(sequential) == 0) {
+            context.fail("Expected the generator to place asteroids!");
+        } else if (difference != null) {
+            context.fail(String.format("Expected concurrent generation to fill chunks like sequential generation, but %s!", difference));
+        }
+        context.succeed();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.gametest;
+
+import com.sun.management.ThreadMXBean;
+import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.api.block.entity.Connected;
+import dev.galacticraft.mod.api.pipe.FluidPipe;
+import dev.galacticraft.mod.api.pipe.PipeNetwork;
+import dev.galacticraft.mod.api.pipe.impl.PipeNetworkImpl;
+import dev.galacticraft.mod.api.wire.Wire;
+import dev.galacticraft.mod.api.wire.WireNetwork;
+import dev.galacticraft.mod.api.wire.impl.WireNetworkImpl;
+import dev.galacticraft.mod.content.GCBlocks;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.material.Fluids;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures wire and pipe networks of different sizes: how long it takes to form them,
+ * how long a single insert takes every tick and how much memory both allocate.
+ * Every size runs in its own batch, so each one is reported as a separate test case in the gametest report.
+ * A test fails if it goes over a budget that is far above the expected cost, so that only real regressions are reported.
+ * <p>
+ * Consumers are {@link GalacticraftTestMod#SINK sinks}, which accept any amount of energy and fluid.
+ */
+public class ConductorBenchmarkTestSuite implements GalacticraftGameTest {
+    private static final int TICKS = 20;
+    private static final long FORMATION_BUDGET = 1_000_000_000L; // 1 s
+    private static final long INSERT_BUDGET = 5_000_000L; // 5 ms, a tenth of a tick
+    private static final @Nullable ThreadMXBean THREADS = ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean
+            && bean.isThreadAllocatedMemorySupported() ? bean : null;
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "wire_benchmark_100", timeoutTicks = TICKS + 20)
+    public void wire100Benchmark(GameTestHelper context) {
+        this.benchmark(context, GCBlocks.ALUMINUM_WIRE, 100, 1);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "wire_benchmark_1k", timeoutTicks = TICKS + 20)
+    public void wire1kBenchmark(GameTestHelper context) {
+        this.benchmark(context, GCBlocks.ALUMINUM_WIRE, 1_000, 10);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "wire_benchmark_10k", timeoutTicks = TICKS + 20)
+    public void wire10kBenchmark(GameTestHelper context) {
+        this.benchmark(context, GCBlocks.ALUMINUM_WIRE, 10_000, 100);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "wire_benchmark_50k", timeoutTicks = TICKS + 20)
+    public void wire50kBenchmark(GameTestHelper context) {
+        this.benchmark(context, GCBlocks.ALUMINUM_WIRE, 50_000, 1_000);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "pipe_benchmark_100", timeoutTicks = TICKS + 20)
+    public void pipe100Benchmark(GameTestHelper context) {
+        this.benchmark(context, GCBlocks.GLASS_FLUID_PIPE, 100, 1);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "pipe_benchmark_1k", timeoutTicks = TICKS + 20)
+    public void pipe1kBenchmark(GameTestHelper context) {
+        this.benchmark(context, GCBlocks.GLASS_FLUID_PIPE, 1_000, 10);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "pipe_benchmark_10k", timeoutTicks = TICKS + 20)
+    public void pipe10kBenchmark(GameTestHelper context) {
+        this.benchmark(context, GCBlocks.GLASS_FLUID_PIPE, 10_000, 100);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "pipe_benchmark_50k", timeoutTicks = TICKS + 20)
+    public void pipe50kBenchmark(GameTestHelper context) {
+        this.benchmark(context, GCBlocks.GLASS_FLUID_PIPE, 50_000, 1_000);
+    }
+
+    private void benchmark(GameTestHelper context, Block block, int conductors, int endpoints) {
+        ServerLevel level = context.getLevel();
+        List<BlockPos> line = this.placeLine(context, block, conductors);
+        List<BlockPos> consumers = placeConsumers(level, line, endpoints);
+        BlockPos first = line.getFirst();
+        BlockPos second = line.get(1);
+        BlockEntity head = level.getBlockEntity(first);
+
+        // Form the network the same way it is formed when the first conductor is placed
+        Direction direction = Direction.fromDelta(second.getX() - first.getX(), second.getY() - first.getY(), second.getZ() - first.getZ());
+        ((Connected) head).getConnections()[direction.get3DDataValue()] = false;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        level.neighborChanged(first, block, second);
+        long formation = System.nanoTime() - start;
+        long formationAllocated = allocatedBytes() - allocated;
+
+        long[] insert = new long[3]; // time, allocated bytes, amount
+        for (int tick = 1; tick <= TICKS; tick++) {
+            this.runAt(context, tick, () -> {
+                long allocatedBefore = allocatedBytes();
+                long startBefore = System.nanoTime();
+                try (Transaction transaction = Transaction.openOuter()) {
+                    insert[2] += insert(head, transaction);
+                    transaction.commit();
+                }
+                insert[0] += System.nanoTime() - startBefore;
+                insert[1] += allocatedBytes() - allocatedBefore;
+            });
+        }
+
+        this.runAt(context, TICKS + 1, () -> {
+            int size = size(head);
+            remove(head);
+            this.removeBlocks(context, line);
+            this.removeBlocks(context, consumers);
+
+            long insertTime = insert[0] / TICKS;
+            this.reportBenchmark(context, String.format("%s network of %s conductors and %s consumers: formed in %s us (%s KiB allocated), insert %s us/t (%s B/t allocated, %s transferred/t)",
+                    block.getName().getString(), conductors, consumers.size(), formation / 1000, formationAllocated / 1024,
+                    insertTime / 1000, insert[1] / TICKS, insert[2] / TICKS));
+
+            if (size != conductors) {
+                context.fail(String.format("Expected a network of %s conductors but found %s conductors!", conductors, size), first);
+            } else if (insert[2] == 0) {
+                context.fail("Expected the network to transfer to its consumers!", first);
+            } else if (formation > FORMATION_BUDGET) {
+                context.fail(String.format("Forming a network of %s conductors took %s ms!", conductors, formation / 1_000_000));
+            } else if (insertTime > INSERT_BUDGET) {
+                context.fail(String.format("Inserting into a network of %s conductors and %s consumers took %s us per tick!", conductors, consumers.size(), insertTime / 1000));
+            }
+            context.succeed();
+        });
+    }
+
+    /**
+     * Places consumers next to conductors spread evenly along the line, and connects the conductors to them.
+     */
+    private static List<BlockPos> placeConsumers(ServerLevel level, List<BlockPos> line, int count) {
+        LongOpenHashSet occupied = new LongOpenHashSet(line.size() + count);
+        for (BlockPos pos : line) {
+            occupied.add(pos.asLong());
+        }
+
+        List<BlockPos> consumers = new ArrayList<>(count);
+        int stride = Math.max(1, line.size() / count);
+        for (int i = 0; i < line.size() && consumers.size() < count; i += stride) {
+            BlockPos conductor = line.get(i);
+            for (Direction direction : Constant.Misc.DIRECTIONS) {
+                if (direction == Direction.DOWN) continue; // don't replace the floor of the test structure
+                BlockPos pos = conductor.relative(direction);
+                if (occupied.add(pos.asLong())) {
+                    level.setBlock(pos, GalacticraftTestMod.SINK.defaultBlockState(), Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE);
+                    ((Connected) level.getBlockEntity(conductor)).getConnections()[direction.get3DDataValue()] = true;
+                    consumers.add(pos);
+                    break;
+                }
+            }
+        }
+        return consumers;
+    }
+
+    private static long insert(BlockEntity head, TransactionContext transaction) {
+        if (head instanceof Wire wire) {
+            WireNetwork network = wire.getNetwork();
+            return network == null ? 0 : network.insert(Long.MAX_VALUE, transaction);
+        } else {
+            PipeNetwork network = ((FluidPipe) head).getNetwork();
+            return network == null ? 0 : network.insert(FluidVariant.of(Fluids.WATER), Long.MAX_VALUE, transaction);
+        }
+    }
+
+    private static int size(BlockEntity head) {
+        if (head instanceof Wire wire) {
+            WireNetwork network = wire.getNetwork();
+            return network == null || network.markedForRemoval() ? 0 : ((WireNetworkImpl) network).getWires().size();
+        } else {
+            PipeNetwork network = ((FluidPipe) head).getNetwork();
+            return network == null || network.markedForRemoval() ? 0 : ((PipeNetworkImpl) network).getPipes().size();
+        }
+    }
+
+    private static void remove(BlockEntity head) {
+        if (head instanceof Wire wire) {
+            if (wire.getNetwork() != null) wire.getNetwork().markForRemoval();
+        } else if (((FluidPipe) head).getNetwork() != null) {
+            ((FluidPipe) head).getNetwork().markForRemoval();
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -22,14 +22,28 @@
 
 package dev.galacticraft.mod.gametest;
 
+import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.api.block.entity.Connected;
+import dev.galacticraft.mod.gametest.mixin.GameTestHelperAccessor;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.item.Item;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface GalacticraftGameTest extends FabricGameTest {
     String SINGLE_BLOCK = "galacticraft-test:single_block";
+    int LINE_ROW_LENGTH = 48;
+    int LINE_ROWS = 24;
 
     default void runNext(GameTestHelper context, Runnable runnable) {
         context.runAtTickTime(context.getTick() + 1, runnable);
@@ -47,6 +61,14 @@ default void runFinalTaskAt(GameTestHelper context, int time, Runnable runnable)
         context.runAtTickTime(context.getTick() + time, () -> context.succeedWhen(runnable));
     }
 
+    /**
+     * Logs the measurements of a benchmark and attaches them to the test case in the gametest report.
+     */
+    default void reportBenchmark(GameTestHelper context, String result) {
+        Constant.LOGGER.info(result);
+        BenchmarkResults.record(((GameTestHelperAccessor) context).getTestInfo().getTestName(), result);
+    }
+
     default String formatItem(@Nullable Item item, long count) {
         if (item == null) {
             return "null";
@@ -56,4 +78,61 @@ default String formatItem(@Nullable Item item, long count) {
             return String.format("%s x%s", BuiltInRegistries.ITEM.getKey(item), count);
         }
     }
+
+    /**
+     * Places a single connected line of blocks that snakes back and forth above the test structure.
+     * Rows and layers are one block apart, so every block only touches the blocks before and after it in the line.
+     * The blocks are placed without block updates and the connections of {@link Connected} blocks are set directly,
+     * so nothing reacts to the line until it is used.
+     *
+     * @return the absolute positions of the line, in order
+     */
+    default List<BlockPos> placeLine(GameTestHelper context, Block block, int length) {
+        ServerLevel level = context.getLevel();
+        BlockPos origin = context.absolutePos(new BlockPos(0, 1, 0));
+        List<BlockPos> line = new ArrayList<>(length);
+        LongOpenHashSet positions = new LongOpenHashSet(length);
+        int x = 0, y = 0, z = 0;
+        int dx = 1, dz = 1;
+        while (line.size() < length) {
+            BlockPos pos = origin.offset(x, y, z);
+            line.add(pos);
+            positions.add(pos.asLong());
+            if ((y & 1) == 1) { // between two layers
+                y++;
+                dz = -dz;
+                dx = -dx;
+            } else if ((z & 1) == 1) { // between two rows
+                z += dz;
+                dx = -dx;
+            } else if (x + dx >= 0 && x + dx < LINE_ROW_LENGTH) {
+                x += dx;
+            } else if (z + dz * 2 >= 0 && z + dz * 2 < LINE_ROWS * 2) {
+                z += dz;
+            } else {
+                y++;
+            }
+        }
+
+        for (BlockPos pos : line) {
+            level.setBlock(pos, block.defaultBlockState(), Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE);
+        }
+        for (BlockPos pos : line) {
+            if (level.getBlockEntity(pos) instanceof Connected connected) {
+                for (Direction direction : Constant.Misc.DIRECTIONS) {
+                    connected.getConnections()[direction.get3DDataValue()] = positions.contains(pos.relative(direction).asLong());
+                }
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Removes blocks without block updates, such as a line placed by {@link #placeLine(GameTestHelper, Block, int)}.
+     */
+    default void removeBlocks(GameTestHelper context, List<BlockPos> positions) {
+        for (BlockPos pos : positions) {
+            context.getLevel().setBlock(pos, Blocks.AIR.defaultBlockState(), Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE);
+        }
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.gametest;
+
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.InsertionOnlyStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockBehaviour;
+import team.reborn.energy.api.EnergyStorage;
+
+/**
+ * Registers the blocks that only exist in the test mod, so that tests don't have to change how vanilla or Galacticraft blocks behave.
+ */
+public class GalacticraftTestMod implements ModInitializer {
+    public static final String MOD_ID = "galacticraft-test";
+    /**
+     * Accepts any amount of energy and fluid from every side, and keeps none of it.
+     */
+    public static final Block SINK = new Block(BlockBehaviour.Properties.of());
+
+    @Override
+    public void onInitialize() {
+        Registry.register(BuiltInRegistries.BLOCK, ResourceLocation.fromNamespaceAndPath(MOD_ID, "sink"), SINK);
+        EnergyStorage.SIDED.registerForBlocks((level, pos, state, blockEntity, direction) -> new EnergySink(), SINK);
+        FluidStorage.SIDED.registerForBlocks((level, pos, state, blockEntity, direction) -> new FluidSink(), SINK);
+    }
+
+    private static class EnergySink implements EnergyStorage {
+        @Override
+        public long insert(long maxAmount, TransactionContext transaction) {
+            return maxAmount;
+        }
+
+        @Override
+        public boolean supportsExtraction() {
+            return false;
+        }
+
+        @Override
+        public long extract(long maxAmount, TransactionContext transaction) {
+            return 0;
+        }
+
+        @Override
+        public long getAmount() {
+            return 0;
+        }
+
+        @Override
+        public long getCapacity() {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static class FluidSink implements InsertionOnlyStorage<FluidVariant> {
+        @Override
+        public long insert(FluidVariant resource, long maxAmount, TransactionContext transaction) {
+            return maxAmount;
+        }
+    }
+}
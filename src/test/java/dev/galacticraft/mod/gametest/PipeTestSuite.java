@@ -22,14 +22,27 @@
 
 package dev.galacticraft.mod.gametest;
 
+import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.Galacticraft;
 import dev.galacticraft.mod.api.pipe.FluidPipe;
+import dev.galacticraft.mod.api.pipe.PipeNetwork;
 import dev.galacticraft.mod.api.pipe.impl.PipeNetworkImpl;
+import dev.galacticraft.mod.config.ConfigImpl;
 import dev.galacticraft.mod.content.GCBlocks;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.gametest.framework.GameTest;
 import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.material.Fluids;
+
+import java.util.List;
 
 public class PipeTestSuite implements GalacticraftGameTest {
+    private static final int LINE_LENGTH = 10_000;
+
     @GameTest(template = EMPTY_STRUCTURE)
     public void pipeConnectionTest(GameTestHelper context) {
         final var pos0 = new BlockPos(0, 1, 0);
@@ -69,12 +82,10 @@ public void pipeConnectionTest(GameTestHelper context) {
                                 context.fail(String.format("Expected pipe network with 1 pipe but found %s pipes!", ((PipeNetworkImpl) pipe0.getNetwork()).getPipes().size()), pos0);
                             } else if (((PipeNetworkImpl) pipe2.getNetwork()).getPipes().size() != 1) {
                                 context.fail(String.format("Expected pipe network with 1 pipe but found %s pipes!", ((PipeNetworkImpl) pipe2.getNetwork()).getPipes().size()), pos2);
-                            } else if (!pipe1.getNetwork().markedForRemoval()) {
-                                if (!be1.isRemoved()) {
-                                    context.fail("Expected pipe to be removed!", pos1);
-                                } else {
-                                    context.fail("Expected removed pipe network to be marked for removal!", pos1);
-                                }
+                            } else if (!be1.isRemoved()) {
+                                context.fail("Expected pipe to be removed!", pos1);
+                            } else if (pipe0.getNetwork() == pipe2.getNetwork()) {
+                                context.fail(String.format("Expected pipe networks at %s and %s to be split!", pos0, pos2));
                             }
                         });
                     }
@@ -82,4 +93,114 @@ public void pipeConnectionTest(GameTestHelper context) {
             }
         }
     }
+
+    /**
+     * Moves two fluids through the same pipe over consecutive ticks with multi-fluid pipes turned on.
+     * A fluid that is alone gets the whole transfer rate, two fluids split it, and a fluid that stops flowing
+     * only holds back a part of the pipe for one tick.
+     */
+    @GameTest(template = EMPTY_STRUCTURE, batch = "pipe_fluid_sharing")
+    public void pipeFluidSharingTest(GameTestHelper context) {
+        ConfigImpl config = (ConfigImpl) Galacticraft.CONFIG;
+        boolean multiFluid = config.multiFluidPipes();
+        config.setMultiFluidPipes(true);
+
+        final var pos = new BlockPos(0, 1, 0);
+        context.setBlock(pos, GCBlocks.GLASS_FLUID_PIPE);
+        context.setBlock(pos.south(), GalacticraftTestMod.SINK);
+        final var pipe = (FluidPipe) context.getBlockEntity(pos);
+        final var water = FluidVariant.of(Fluids.WATER);
+        final var lava = FluidVariant.of(Fluids.LAVA);
+        final Runnable restore = () -> config.setMultiFluidPipes(multiFluid);
+
+        this.runAt(context, 1, restoring(restore, () -> {
+            PipeNetwork network = pipe.getNetwork();
+            long rate = network.getMaxTransferRate();
+            this.expectInserted(context, network, water, rate);
+            // The water used up the pipe, but the lava still gets a share on the next tick
+            this.expectInserted(context, network, lava, 0);
+        }));
+        this.runAt(context, 2, restoring(restore, () -> {
+            PipeNetwork network = pipe.getNetwork();
+            long rate = network.getMaxTransferRate();
+            long share = (rate + 1) / 2;
+            this.expectInserted(context, network, water, share);
+            this.expectInserted(context, network, lava, rate - share);
+        }));
+        this.runAt(context, 3, restoring(restore, () -> {
+            PipeNetwork network = pipe.getNetwork();
+            long rate = network.getMaxTransferRate();
+            long share = (rate + 1) / 2;
+            this.expectInserted(context, network, water, share);
+        }));
+        this.runAt(context, 4, () -> {
+            try {
+                PipeNetwork network = pipe.getNetwork();
+                this.expectInserted(context, network, water, network.getMaxTransferRate());
+            } finally {
+                restore.run();
+            }
+            context.succeed();
+        });
+    }
+
+    /**
+     * Runs a step of a test that spans several ticks, undoing the changes of the test if the step fails.
+     */
+    private static Runnable restoring(Runnable restore, Runnable step) {
+        return () -> {
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                restore.run();
+                throw e;
+            }
+        };
+    }
+
+    private void expectInserted(GameTestHelper context, PipeNetwork network, FluidVariant variant, long expected) {
+        long inserted;
+        try (Transaction transaction = Transaction.openOuter()) {
+            inserted = network.insert(variant, Long.MAX_VALUE, transaction);
+            transaction.commit();
+        }
+        if (inserted != expected) {
+            context.fail(String.format("Expected the pipe network to move %s of %s but it moved %s!", expected, variant.getFluid(), inserted));
+        }
+    }
+
+    /**
+     * Builds a line of {@value #LINE_LENGTH} pipes and measures how long it takes for them to form a single network.
+     * The network is formed by a neighbour update on the first pipe, the same way it is formed when a pipe is placed.
+     */
+    @GameTest(template = EMPTY_STRUCTURE, batch = "pipe_network_formation")
+    public void pipeNetworkFormationTest(GameTestHelper context) {
+        ServerLevel level = context.getLevel();
+        List<BlockPos> line = this.placeLine(context, GCBlocks.GLASS_FLUID_PIPE, LINE_LENGTH);
+        BlockPos first = line.getFirst();
+        BlockPos second = line.get(1);
+        FluidPipe head = (FluidPipe) level.getBlockEntity(first);
+        FluidPipe tail = (FluidPipe) level.getBlockEntity(line.getLast());
+        try {
+            Direction direction = Direction.fromDelta(second.getX() - first.getX(), second.getY() - first.getY(), second.getZ() - first.getZ());
+            head.getConnections()[direction.get3DDataValue()] = false;
+
+            long start = System.nanoTime();
+            level.neighborChanged(first, GCBlocks.GLASS_FLUID_PIPE, second);
+            long time = System.nanoTime() - start;
+
+            if (head.getNetwork() == null || head.getNetwork().markedForRemoval()) {
+                context.fail("Expected a pipe network but got none!", first);
+            } else if (head.getNetwork() != tail.getNetwork()) {
+                context.fail(String.format("Expected pipe networks at %s and %s to be the same!", first, line.getLast()));
+            } else if (((PipeNetworkImpl) head.getNetwork()).getPipes().size() != LINE_LENGTH) {
+                context.fail(String.format("Expected pipe network with %s pipes but found %s pipes!", LINE_LENGTH, ((PipeNetworkImpl) head.getNetwork()).getPipes().size()));
+            }
+            Constant.LOGGER.info("Formed a network of {} pipes in {} us", LINE_LENGTH, time / 1000);
+        } finally {
+            if (head.getNetwork() != null) head.getNetwork().markForRemoval();
+            this.removeBlocks(context, line);
+        }
+        context.succeed();
+    }
 }
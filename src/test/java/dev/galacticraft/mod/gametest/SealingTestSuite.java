@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.gametest;
+
+import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.machine.SealingBlockReader;
+import dev.galacticraft.mod.machine.SealingFloodFill;
+import dev.galacticraft.mod.tag.GCBlockTags;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Compares the packed sealing flood fill with the original {@link BlockPos} based one on rooms of different sizes.
+ * Every room is built outside the test structure in its own batch and removed again afterwards.
+ */
+public class SealingTestSuite implements GalacticraftGameTest {
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 10;
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "sealing_benchmark_1k")
+    public void floodFill1kBenchmark(GameTestHelper context) {
+        this.benchmark(context, 10, 10, 10);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "sealing_benchmark_10k")
+    public void floodFill10kBenchmark(GameTestHelper context) {
+        this.benchmark(context, 25, 20, 20);
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "sealing_benchmark_100k")
+    public void floodFill100kBenchmark(GameTestHelper context) {
+        this.benchmark(context, 50, 50, 40);
+    }
+
+    private void benchmark(GameTestHelper context, int sizeX, int sizeY, int sizeZ) {
+        ServerLevel level = context.getLevel();
+        BlockPos min = context.absolutePos(new BlockPos(0, 1, 0));
+        BlockPos max = min.offset(sizeX + 1, sizeY + 1, sizeZ + 1);
+        BlockPos start = min.offset(1, 1, 1);
+        int expected = sizeX * sizeY * sizeZ;
+
+        for (BlockPos pos : BlockPos.betweenClosed(min, max)) {
+            boolean wall = pos.getX() == min.getX() || pos.getX() == max.getX()
+                    || pos.getY() == min.getY() || pos.getY() == max.getY()
+                    || pos.getZ() == min.getZ() || pos.getZ() == max.getZ();
+            level.setBlock(pos, wall ? Blocks.STONE.defaultBlockState() : Blocks.AIR.defaultBlockState(), Block.UPDATE_CLIENTS);
+        }
+
+        long legacy;
+        long packed;
+        try {
+            legacy = time(context, expected, () -> legacyFloodFill(level, start));
+            packed = time(context, expected, () -> packedFloodFill(level, start));
+        } finally {
+            for (BlockPos pos : BlockPos.betweenClosed(min, max)) {
+                level.setBlock(pos, Blocks.AIR.defaultBlockState(), Block.UPDATE_CLIENTS);
+            }
+        }
+
+        Constant.LOGGER.info("Sealing flood fill of {} blocks: legacy {} us, packed {} us ({}x)",
+                expected, legacy / 1000, packed / 1000, String.format("%.2f", (double) legacy / packed));
+        context.succeed();
+    }
+
+    /**
+     * Returns the average time of a flood fill in nanoseconds.
+     */
+    private static long time(GameTestHelper context, int expected, IntSupplier floodFill) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            floodFill.getAsInt();
+        }
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            int volume = floodFill.getAsInt();
+            total += System.nanoTime() - start;
+            if (volume != expected) {
+                context.fail(String.format("Expected a room of %s blocks but flooded %s blocks!", expected, volume));
+            }
+        }
+        return total / ITERATIONS;
+    }
+
+    private static int packedFloodFill(ServerLevel level, BlockPos start) {
+        SealingFloodFill floodFill = new SealingFloodFill(SealingBlockReader.of(level));
+        floodFill.enqueue(start.asLong());
+        while (floodFill.next() != SealingFloodFill.END) {
+            // visit every block of the room
+        }
+        return floodFill.volume();
+    }
+
+    // The flood fill as it was implemented before the packed version
+    private static int legacyFloodFill(ServerLevel level, BlockPos start) {
+        Set<BlockPos> blocks = new HashSet<>();
+        Deque<BlockPos> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            BlockPos pos = queue.pollFirst();
+            if (blocks.contains(pos)) continue;
+            BlockState blockState = level.getBlockState(pos);
+            if (blockState.is(GCBlockTags.SEALABLE)) continue;
+            if (blockState.isCollisionShapeFullBlock(level, pos) && !blockState.is(GCBlockTags.UNSEALABLE)) continue;
+
+            blocks.add(pos);
+            for (Direction direction : Direction.values()) queue.add(pos.relative(direction));
+        }
+        return blocks.size();
+    }
+}
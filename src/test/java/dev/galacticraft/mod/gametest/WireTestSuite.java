@@ -22,14 +22,25 @@
 
 package dev.galacticraft.mod.gametest;
 
+import dev.galacticraft.mod.Constant;
+import dev.galacticraft.mod.Galacticraft;
 import dev.galacticraft.mod.api.wire.Wire;
+import dev.galacticraft.mod.api.wire.WireNetwork;
 import dev.galacticraft.mod.api.wire.impl.WireNetworkImpl;
+import dev.galacticraft.mod.config.ConfigImpl;
 import dev.galacticraft.mod.content.GCBlocks;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.gametest.framework.GameTest;
 import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.List;
 
 public class WireTestSuite implements GalacticraftGameTest {
+    private static final int LINE_LENGTH = 10_000;
+
     @GameTest(template = EMPTY_STRUCTURE)
     public void wireConnectionTest(GameTestHelper context) {
         final var pos0 = new BlockPos(0, 1, 0);
@@ -69,12 +80,10 @@ public void wireConnectionTest(GameTestHelper context) {
                                 context.fail(String.format("Expected wire network with 1 wire but found %s wires!", ((WireNetworkImpl) wire0.getNetwork()).getWires().size()), pos0);
                             } else if (((WireNetworkImpl) wire2.getNetwork()).getWires().size() != 1) {
                                 context.fail(String.format("Expected wire network with 1 wire but found %s wires!", ((WireNetworkImpl) wire2.getNetwork()).getWires().size()), pos2);
-                            } else if (!wire1.getNetwork().markedForRemoval()) {
-                                if (!be1.isRemoved()) {
-                                    context.fail("Expected wire to be removed!", pos1);
-                                } else {
-                                    context.fail("Expected removed wire network to be marked for removal!", pos1);
-                                }
+                            } else if (!be1.isRemoved()) {
+                                context.fail("Expected wire to be removed!", pos1);
+                            } else if (wire0.getNetwork() == wire2.getNetwork()) {
+                                context.fail(String.format("Expected wire networks at %s and %s to be split!", pos0, pos2));
                             }
                         });
                     }
@@ -82,4 +91,121 @@ public void wireConnectionTest(GameTestHelper context) {
             }
         }
     }
+
+    @GameTest(template = EMPTY_STRUCTURE)
+    public void wireLoopGapTest(GameTestHelper context) {
+        final var gap = new BlockPos(0, 1, 0);
+        for (int x = 0; x < 3; x++) {
+            for (int z = 0; z < 3; z++) {
+                if (x != 1 || z != 1) context.setBlock(new BlockPos(x, 1, z), GCBlocks.ALUMINUM_WIRE);
+            }
+        }
+        if (!(context.getBlockEntity(new BlockPos(2, 1, 2)) instanceof Wire wire) || wire.getNetwork() == null) {
+            context.fail("Expected a wire network!", new BlockPos(2, 1, 2));
+            return;
+        }
+        final var network = wire.getNetwork();
+        if (((WireNetworkImpl) network).getWires().size() != 8) {
+            context.fail("Not all wires are registered in the network!");
+            return;
+        }
+
+        context.destroyBlock(gap);
+        this.runFinalTaskNext(context, () -> {
+            if (wire.getNetwork() != network || network.markedForRemoval()) {
+                context.fail("Expected a gap in a loop of wire to keep its network!", gap);
+            } else if (((WireNetworkImpl) network).getWires().size() != 7) {
+                context.fail(String.format("Expected wire network with 7 wires but found %s wires!", ((WireNetworkImpl) network).getWires().size()));
+            }
+        });
+    }
+
+    /**
+     * Joins two wire networks that both hold energy which has not been settled yet, with batched settlement turned on.
+     * The joined network has to settle the energy of both, otherwise it never accepts energy again.
+     */
+    @GameTest(template = EMPTY_STRUCTURE, batch = "wire_batched_settlement")
+    public void wireMergeSettlesDepositsTest(GameTestHelper context) {
+        ConfigImpl config = (ConfigImpl) Galacticraft.CONFIG;
+        boolean batched = config.batchedWireSettlement();
+        config.setBatchedWireSettlement(true);
+
+        final var left = new BlockPos(0, 1, 0);
+        final var gap = new BlockPos(1, 1, 0);
+        final var right = new BlockPos(2, 1, 0);
+        context.setBlock(left, GCBlocks.ALUMINUM_WIRE);
+        context.setBlock(right, GCBlocks.ALUMINUM_WIRE);
+        context.setBlock(left.south(), GalacticraftTestMod.SINK);
+        context.setBlock(right.south(), GalacticraftTestMod.SINK);
+        final var leftWire = (Wire) context.getBlockEntity(left);
+        final var rightWire = (Wire) context.getBlockEntity(right);
+
+        long leftDeposited;
+        long rightDeposited;
+        try (Transaction transaction = Transaction.openOuter()) {
+            leftDeposited = leftWire.getNetwork().insert(Long.MAX_VALUE, transaction);
+            rightDeposited = rightWire.getNetwork().insert(Long.MAX_VALUE, transaction);
+            transaction.commit();
+        }
+        // Join the networks while both of them still hold their deposits
+        context.setBlock(gap, GCBlocks.ALUMINUM_WIRE);
+
+        this.runAt(context, 2, () -> {
+            try {
+                WireNetwork network = leftWire.getNetwork();
+                if (leftDeposited == 0 || rightDeposited == 0) {
+                    context.fail("Expected both wire networks to accept energy!");
+                } else if (network == null || network != rightWire.getNetwork()) {
+                    context.fail(String.format("Expected wire networks at %s and %s to be joined!", left, right), gap);
+                } else {
+                    long accepted;
+                    try (Transaction transaction = Transaction.openOuter()) {
+                        accepted = network.insert(Long.MAX_VALUE, transaction);
+                        transaction.abort();
+                    }
+                    if (accepted == 0) {
+                        context.fail("Expected the joined wire network to settle the energy of both networks and accept energy again!", gap);
+                    }
+                }
+            } finally {
+                config.setBatchedWireSettlement(batched);
+            }
+            context.succeed();
+        });
+    }
+
+    /**
+     * Builds a line of {@value #LINE_LENGTH} wires and measures how long it takes for them to form a single network.
+     * The network is formed by a neighbour update on the first wire, the same way it is formed when a wire is placed.
+     */
+    @GameTest(template = EMPTY_STRUCTURE, batch = "wire_network_formation")
+    public void wireNetworkFormationTest(GameTestHelper context) {
+        ServerLevel level = context.getLevel();
+        List<BlockPos> line = this.placeLine(context, GCBlocks.ALUMINUM_WIRE, LINE_LENGTH);
+        BlockPos first = line.getFirst();
+        BlockPos second = line.get(1);
+        Wire head = (Wire) level.getBlockEntity(first);
+        Wire tail = (Wire) level.getBlockEntity(line.getLast());
+        try {
+            Direction direction = Direction.fromDelta(second.getX() - first.getX(), second.getY() - first.getY(), second.getZ() - first.getZ());
+            head.getConnections()[direction.get3DDataValue()] = false;
+
+            long start = System.nanoTime();
+            level.neighborChanged(first, GCBlocks.ALUMINUM_WIRE, second);
+            long time = System.nanoTime() - start;
+
+            if (head.getNetwork() == null || head.getNetwork().markedForRemoval()) {
+                context.fail("Expected a wire network but got none!", first);
+            } else if (head.getNetwork() != tail.getNetwork()) {
+                context.fail(String.format("Expected wire networks at %s and %s to be the same!", first, line.getLast()));
+            } else if (((WireNetworkImpl) head.getNetwork()).getWires().size() != LINE_LENGTH) {
+                context.fail(String.format("Expected wire network with %s wires but found %s wires!", LINE_LENGTH, ((WireNetworkImpl) head.getNetwork()).getWires().size()));
+            }
+            Constant.LOGGER.info("Formed a network of {} wires in {} us", LINE_LENGTH, time / 1000);
+        } finally {
+            if (head.getNetwork() != null) head.getNetwork().markForRemoval();
+            this.removeBlocks(context, line);
+        }
+        context.succeed();
+    }
 }
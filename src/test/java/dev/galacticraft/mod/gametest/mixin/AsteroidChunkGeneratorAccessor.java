@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.gametest.mixin;
+
+import dev.galacticraft.api.perlin.NoiseModule;
+import dev.galacticraft.mod.world.gen.custom.AsteroidChunkGenerator;
+import dev.galacticraft.mod.world.gen.custom.AsteroidPlacementIndex;
+import dev.galacticraft.mod.world.gen.custom.SpecialAsteroidBlockHandler;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+@Mixin(AsteroidChunkGenerator.class)
+public interface AsteroidChunkGeneratorAccessor {
+    @Accessor("placements")
+    AsteroidPlacementIndex getPlacements();
+
+    @Accessor("asteroidTurbulance")
+    NoiseModule getAsteroidTurbulance();
+
+    @Accessor("asteroidSkewX")
+    NoiseModule getAsteroidSkewX();
+
+    @Accessor("asteroidSkewY")
+    NoiseModule getAsteroidSkewY();
+
+    @Accessor("asteroidSkewZ")
+    NoiseModule getAsteroidSkewZ();
+
+    @Accessor("coreHandler")
+    SpecialAsteroidBlockHandler getCoreHandler();
+
+    @Accessor("shellHandler")
+    SpecialAsteroidBlockHandler getShellHandler();
+
+    @Invoker("randFromPoint")
+    float invokeRandFromPoint(int x, int y, int z);
+}
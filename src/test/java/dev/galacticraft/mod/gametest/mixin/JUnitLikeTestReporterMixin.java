@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2019-2025 Team Galacticraft
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package dev.galacticraft.mod.gametest.mixin;
+
+import dev.galacticraft.mod.gametest.BenchmarkResults;
+import net.minecraft.gametest.framework.GameTestInfo;
+import net.minecraft.gametest.framework.JUnitLikeTestReporter;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.w3c.dom.Element;
+
+/**
+ * Writes the measurements of benchmark tests into the {@code system-out} of their test case in the JUnit report.
+ */
+@Mixin(JUnitLikeTestReporter.class)
+public abstract class JUnitLikeTestReporterMixin {
+    @Inject(method = "createTestCase", at = @At("RETURN"))
+    private void galacticraft$attachBenchmarkResults(GameTestInfo info, String name, CallbackInfoReturnable<Element> cir) {
+        String result = BenchmarkResults.take(name);
+        if (result != null) {
+            Element testCase = cir.getReturnValue();
+            Element output = testCase.getOwnerDocument().createElement("system-out");
+            output.setTextContent(result);
+            testCase.appendChild(output);
+        }
+    }
+}